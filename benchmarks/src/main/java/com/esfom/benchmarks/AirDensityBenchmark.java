@@ -0,0 +1,105 @@
+package com.esfom.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esfom.airdensity.Air;
+import com.esfom.airdensity.AirDensity;
+import com.esfom.airdensity.AirDensityCIPM1981Final;
+import com.esfom.airdensity.AirDensityCIPM1991Final;
+import com.esfom.airdensity.AirDensityCIPM2007Final;
+import com.esfom.airdensity.AirDensityRegistry;
+import com.esfom.airdensity.AirFactory;
+
+/**
+ * Air density equations: single calls, batch calls and {@link Air#getK()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AirDensityBenchmark {
+
+	private static final int SIZE = 1024;
+
+	@Param({ "CIPM-1981", "CIPM-1981/91", "CIPM-2007" })
+	public String equation;
+
+	private AirDensity airDensity;
+	private AirDensity finalAirDensity;
+	private Air air;
+
+	private final double[] t = new double[SIZE];
+	private final double[] h = new double[SIZE];
+	private final double[] p = new double[SIZE];
+	private final double[] rho = new double[SIZE];
+	private int index;
+
+	@Setup
+	public void setup() {
+		airDensity = AirDensityRegistry.get(equation);
+		air = new AirFactory().getAir(equation);
+		finalAirDensity = equation.equals("CIPM-1981") ? new AirDensityCIPM1981Final()
+				: equation.equals("CIPM-1981/91") ? new AirDensityCIPM1991Final() : new AirDensityCIPM2007Final();
+		SplittableRandom random = new SplittableRandom(1);
+		for (int i = 0; i < SIZE; i++) {
+			t[i] = 15 + 15 * random.nextDouble();
+			h[i] = 0.2 + 0.6 * random.nextDouble();
+			p[i] = 60000 + 50000 * random.nextDouble();
+		}
+	}
+
+	private int next() {
+		return index = (index + 1) & (SIZE - 1);
+	}
+
+	@Benchmark
+	public double getAirDensity() {
+		int i = next();
+		return airDensity.getAirDensity(t[i], h[i], p[i]);
+	}
+
+	@Benchmark
+	public double getAirDensityFinal() {
+		int i = next();
+		return finalAirDensity.getAirDensity(t[i], h[i], p[i]);
+	}
+
+	@Benchmark
+	public double getAirDensityWithCarbonDioxide() {
+		int i = next();
+		return airDensity.getAirDensity(t[i], h[i], p[i], 0.00045);
+	}
+
+	/**
+	 * One call for {@value #SIZE} rows; divide the score by the size for the cost
+	 * of a row.
+	 */
+	@Benchmark
+	public double[] getAirDensityBatch() {
+		airDensity.getAirDensity(t, h, p, rho, 0, SIZE);
+		return rho;
+	}
+
+	@Benchmark
+	public double airGetK() {
+		int i = next();
+		air.set(t[i], h[i], p[i]);
+		return air.getK();
+	}
+
+}
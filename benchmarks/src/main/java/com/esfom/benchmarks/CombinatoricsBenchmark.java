@@ -0,0 +1,48 @@
+package com.esfom.benchmarks;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esfom.math.Combinatorics;
+
+/**
+ * Factorials and binomial coefficients from small to large n.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinatoricsBenchmark {
+
+	@Param({ "20", "1000", "10000", "50000" })
+	public int n;
+
+	@Benchmark
+	public BigInteger factorial() {
+		return Combinatorics.factorial(n);
+	}
+
+	@Benchmark
+	public BigInteger combinationsNoRepeats() {
+		return Combinatorics.combinationsNoRepeats(n, n / 2);
+	}
+
+	@Benchmark
+	public BigInteger smartCalcCombinations() {
+		return Combinatorics.smartCalc(n, 5, false, false);
+	}
+
+}
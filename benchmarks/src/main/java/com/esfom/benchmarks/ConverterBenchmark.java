@@ -0,0 +1,61 @@
+package com.esfom.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esfom.munit.Converter;
+
+/**
+ * Mole, mass and volume fractions of mixtures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+
+	@Param({ "4", "64" })
+	public int components;
+
+	private double[] mass;
+	private double[] molarMass;
+
+	@Setup
+	public void setup() {
+		mass = new double[components];
+		molarMass = new double[components];
+		for (int i = 0; i < components; i++) {
+			mass[i] = 1 + i;
+			molarMass[i] = 10 + 3 * i;
+		}
+	}
+
+	@Benchmark
+	public double moleFraction() {
+		return Converter.moleFraction(components / 2, mass, molarMass);
+	}
+
+	@Benchmark
+	public double massFraction() {
+		return Converter.massFraction(components / 2, mass, molarMass);
+	}
+
+	@Benchmark
+	public double volumeFraction() {
+		return Converter.volumeFraction(components / 2, mass);
+	}
+
+}
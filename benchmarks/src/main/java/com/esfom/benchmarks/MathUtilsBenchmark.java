@@ -0,0 +1,61 @@
+package com.esfom.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esfom.math.MathUtils;
+
+/**
+ * Table interpolation for several table sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathUtilsBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "16", "256", "4096", "65536" })
+	public int size;
+
+	private TreeMap<Double, Double> map;
+	private final double[] x = new double[QUERIES];
+	private int index;
+
+	@Setup
+	public void setup() {
+		map = new TreeMap<>();
+		for (int i = 0; i < size; i++) {
+			double key = i * 0.5;
+			map.put(key, Math.sin(key / size));
+		}
+		SplittableRandom random = new SplittableRandom(1);
+		for (int i = 0; i < QUERIES; i++) {
+			// 10% of the queries are extrapolated
+			x[i] = (1.1 * random.nextDouble() - 0.05) * size * 0.5;
+		}
+	}
+
+	@Benchmark
+	public double interpolate() {
+		index = (index + 1) & (QUERIES - 1);
+		return MathUtils.interpolate(x[index], map);
+	}
+
+}
@@ -9,7 +9,7 @@ public class Air {
 	
 	public Air() {
 		super();
-		this.airDensity = new AirDensityCIPM2007();
+		this.airDensity = AirDensityRegistry.getDefault();
 	}
 	
 	public void set(double temperature, double humidity, double pressure) {
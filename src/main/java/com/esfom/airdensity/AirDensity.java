@@ -66,6 +66,76 @@ public interface AirDensity {
      */
 	public double getAirDensity(double airTemperature, double airHumidity, double pressure);
 	
+	/**
+     * Calculates the air density for a column of measurements, writing the results
+     * into {@code result} at the same indexes.
+     * <p>The default implementation loops over {@link #getAirDensity(double, double, double, double)}.
+     * 
+     * @param   airTemperature air temperatures in laboratory in (<sup>O</sup>C).
+     * @param   airHumidity relative humidities in laboratory (relative humidity reading of "53%" is expressed as 0.53).
+     * @param   pressure atmospheric pressures in pascals (Pa).
+     * @param   carbonDioxideFraction mole fractions of carbon dioxide in laboratory air.
+     * @param   result array receiving air densities (kg/m<sup>3</sup>).
+     * @param   offset index of the first measurement.
+     * @param   length number of measurements to calculate.
+     */
+	default void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure,
+			double[] carbonDioxideFraction, double[] result, int offset, int length) {
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = getAirDensity(airTemperature[i], airHumidity[i], pressure[i], carbonDioxideFraction[i]);
+		}
+	}
+	
+	/**
+     * Calculates the air density for a column of measurements without mole fraction
+     * of carbon dioxide, writing the results into {@code result} at the same indexes.
+     * <p>The default implementation loops over {@link #getAirDensity(double, double, double)}.
+     * 
+     * @param   airTemperature air temperatures in laboratory in (<sup>O</sup>C).
+     * @param   airHumidity relative humidities in laboratory (relative humidity reading of "53%" is expressed as 0.53).
+     * @param   pressure atmospheric pressures in pascals (Pa).
+     * @param   result array receiving air densities (kg/m<sup>3</sup>).
+     * @param   offset index of the first measurement.
+     * @param   length number of measurements to calculate.
+     */
+	default void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure, double[] result,
+			int offset, int length) {
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = getAirDensity(airTemperature[i], airHumidity[i], pressure[i]);
+		}
+	}
+	
+	/**
+     * Calculates the air density and its partial derivatives with respect to every
+     * argument (sensitivity coefficients for an uncertainty budget).
+     * <p>The default implementation uses central differences, i.e. nine calls of
+     * {@link #getAirDensity(double, double, double, double)}.
+     * 
+     * @param   airTemperature current air temperature in laboratory in (<sup>O</sup>C).
+     * @param   airHumidity current relative humidity in laboratory (relative humidity reading of "53%" is expressed as 0.53).
+     * @param   pressure atmospheric pressure in pascals (Pa).
+     * @param   carbonDioxideFraction   mole fraction of carbon dioxide in laboratory air.
+     * @param   result holder to fill, may be reused between calls.
+     * @return  {@code result}.
+     */
+	default AirDensityGradient getAirDensityGradient(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction, AirDensityGradient result) {
+		final double dt = 1E-3;
+		final double dh = 1E-4;
+		final double dp = 1E-1;
+		final double dx = 1E-6;
+		double rho = getAirDensity(airTemperature, airHumidity, pressure, carbonDioxideFraction);
+		double rhoT = (getAirDensity(airTemperature + dt, airHumidity, pressure, carbonDioxideFraction)
+				- getAirDensity(airTemperature - dt, airHumidity, pressure, carbonDioxideFraction)) / (2 * dt);
+		double rhoH = (getAirDensity(airTemperature, airHumidity + dh, pressure, carbonDioxideFraction)
+				- getAirDensity(airTemperature, airHumidity - dh, pressure, carbonDioxideFraction)) / (2 * dh);
+		double rhoP = (getAirDensity(airTemperature, airHumidity, pressure + dp, carbonDioxideFraction)
+				- getAirDensity(airTemperature, airHumidity, pressure - dp, carbonDioxideFraction)) / (2 * dp);
+		double rhoX = (getAirDensity(airTemperature, airHumidity, pressure, carbonDioxideFraction + dx)
+				- getAirDensity(airTemperature, airHumidity, pressure, carbonDioxideFraction - dx)) / (2 * dx);
+		return result.set(rho, rhoT, rhoH, rhoP, rhoX);
+	}
+	
 	/**
      * Returns the current equation name.
      * 
@@ -86,7 +156,15 @@ public interface AirDensity {
 	 * Where e is current air density
 	 */
 	public default double getK(double airTemperature, double airHumidity, double pressure) {
-		return 1 - getAirDensity(airTemperature, airHumidity, pressure)/8000;
+		return getK(getAirDensity(airTemperature, airHumidity, pressure));
+	}
+	
+	/**
+	 * Return 1 - e/8000;
+	 * Where e is the given air density
+	 */
+	public default double getK(double airDensity) {
+		return 1 - airDensity/8000;
 	}
 		
 }
@@ -1,5 +1,7 @@
 package com.esfom.airdensity;
 
+import com.esfom.airdensity.CIPMCoefficients.CIPM1991;
+
 /**
  * The class {@code AirDensityCIPM1991} contains constants and methods for
  * calculating the moist air density in accordance with the "Equation for the
@@ -13,26 +15,26 @@ public class AirDensityCIPM1991 extends AirDensityCIPMBase implements AirDensity
 
 	public AirDensityCIPM1991() {
 		
-		this.EQUATION_NAME = "CIPM-1981/91";
-		this.MOLAR_GAS_CONSTANT = 8.314510;
-		this.MOLAR_MASS_OF_DRY_AIR = 28.9635124399E-3;
-		this.MOLAR_MASS_OF_WATER = 18.0152817E-3;
-		this.CARBON_DIOXIDE_FRACTION = 0.0004;
+		this.EQUATION_NAME = CIPM1991.EQUATION_NAME;
+		this.MOLAR_GAS_CONSTANT = CIPM1991.MOLAR_GAS_CONSTANT;
+		this.MOLAR_MASS_OF_DRY_AIR = CIPM1991.MOLAR_MASS_OF_DRY_AIR;
+		this.MOLAR_MASS_OF_WATER = CIPMCoefficients.MOLAR_MASS_OF_WATER;
+		this.CARBON_DIOXIDE_FRACTION = CIPMCoefficients.CARBON_DIOXIDE_FRACTION;
 
-		this.A = 1.2378847E-5;
-		this.B = -1.9121316E-2;
-		this.C = 33.93711047;
-		this.D = -6.3431645E3;
+		this.A = CIPM1991.A;
+		this.B = CIPM1991.B;
+		this.C = CIPM1991.C;
+		this.D = CIPM1991.D;
 
-		this.a0 = 1.58123E-6;
-		this.a1 = -2.9331E-8;
-		this.a2 = 1.1043E-10;
-		this.b0 = 5.707E-6;
-		this.b1 = -2.051E-8;
-		this.c0 = 1.9898E-4;
-		this.c1 = -2.376E-6;
-		this.d = 1.83E-11;
-		this.e = -0.765E-8;
+		this.a0 = CIPMCoefficients.a0;
+		this.a1 = CIPMCoefficients.a1;
+		this.a2 = CIPMCoefficients.a2;
+		this.b0 = CIPMCoefficients.b0;
+		this.b1 = CIPMCoefficients.b1;
+		this.c0 = CIPMCoefficients.c0;
+		this.c1 = CIPMCoefficients.c1;
+		this.d = CIPMCoefficients.d;
+		this.e = CIPMCoefficients.e;
 	}
 
 }
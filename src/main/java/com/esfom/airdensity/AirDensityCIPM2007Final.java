@@ -0,0 +1,64 @@
+package com.esfom.airdensity;
+
+import static com.esfom.math.MathUtils.checkRange;
+
+import com.esfom.airdensity.CIPMCoefficients.CIPM2007;
+
+/**
+ * The final class {@code AirDensityCIPM2007Final} calculates the moist air
+ * density in accordance with the "Equation for the Determination of the Density
+ * of Moist Air (CIPM-2007)" with every coefficient as a compile-time
+ * constant. The results are bit-identical to {@link AirDensityCIPM2007}, which
+ * remains the class for intermediate quantities and analytic derivatives.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public final class AirDensityCIPM2007Final implements AirDensity {
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction) {
+		return CIPMKernel.density(airTemperature, airHumidity, pressure, carbonDioxideFraction,
+				CIPM2007.MOLAR_GAS_CONSTANT, CIPM2007.MOLAR_MASS_OF_DRY_AIR, CIPM2007.A, CIPM2007.B, CIPM2007.C,
+				CIPM2007.D);
+	}
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure) {
+		return getAirDensity(airTemperature, airHumidity, pressure, CIPMCoefficients.CARBON_DIOXIDE_FRACTION);
+	}
+
+	@Override
+	public void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure,
+			double[] carbonDioxideFraction, double[] result, int offset, int length) {
+		checkRange(airTemperature.length, offset, length);
+		checkRange(airHumidity.length, offset, length);
+		checkRange(pressure.length, offset, length);
+		checkRange(carbonDioxideFraction.length, offset, length);
+		checkRange(result.length, offset, length);
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = getAirDensity(airTemperature[i], airHumidity[i], pressure[i], carbonDioxideFraction[i]);
+		}
+	}
+
+	@Override
+	public void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure, double[] result,
+			int offset, int length) {
+		checkRange(airTemperature.length, offset, length);
+		checkRange(airHumidity.length, offset, length);
+		checkRange(pressure.length, offset, length);
+		checkRange(result.length, offset, length);
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = getAirDensity(airTemperature[i], airHumidity[i], pressure[i],
+					CIPMCoefficients.CARBON_DIOXIDE_FRACTION);
+		}
+	}
+
+	@Override
+	public String getEquationName() {
+		return CIPM2007.EQUATION_NAME;
+	}
+
+}
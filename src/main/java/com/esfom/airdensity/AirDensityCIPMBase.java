@@ -1,5 +1,11 @@
 package com.esfom.airdensity;
 
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_ALPHA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_BETA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_GAMMA;
+import static com.esfom.airdensity.CIPMCoefficients.MOLAR_MASS_OF_CARBON;
+import static com.esfom.math.MathUtils.checkRange;
+
 import com.esfom.munit.Converter;
 
 /**
@@ -62,7 +68,7 @@ abstract class AirDensityCIPMBase implements AirDensity {
 	 */
 	private double saturationVapourPressure(double airTemperature) {
 		double T = Converter.CelsiusToKelvin(airTemperature);
-		return 1 * Math.exp(A * Math.pow(T, 2) + B * T + C + D / T);
+		return Math.exp(A * (T * T) + B * T + C + D / T);
 	}
 
 	// Constants for compressibilityFactor();
@@ -81,39 +87,38 @@ abstract class AirDensityCIPMBase implements AirDensity {
 	 * 
 	 * @param airTemperature
 	 *            current air temperature in laboratory in <sup>O</sup>C.
-	 * @param airHumidity
-	 *            current relative humidity in laboratory (relative humidity reading
-	 *            of "53%" is expressed as 0.53).
 	 * @param pressure
 	 *            atmospheric pressure in pascals.
+	 * @param Xv
+	 *            mole fraction of water vapour.
 	 * @return compressibility factor value of the arguments.
 	 */
-	private double compressibilityFactor(double airTemperature, double airHumidity, double pressure) {
+	private double compressibilityFactor(double airTemperature, double pressure, double Xv) {
 		double T = Converter.CelsiusToKelvin(airTemperature);
-		double Xv = waterVapourMoleFraction(airTemperature, airHumidity, pressure);
 		double Q1 = pressure / T;
-		double Q2 = a0 + a1 * airTemperature + a2 * Math.pow(airTemperature, 2) + (b0 + b1 * airTemperature) * Xv
-				+ (c0 + c1 * airTemperature) * Math.pow(Xv, 2);
-		double Q3 = Math.pow(pressure, 2) / Math.pow(T, 2);
-		double Q4 = d + e * Math.pow(Xv, 2);
+		double Q2 = a0 + a1 * airTemperature + a2 * (airTemperature * airTemperature) + (b0 + b1 * airTemperature) * Xv
+				+ (c0 + c1 * airTemperature) * (Xv * Xv);
+		double Q3 = (pressure * pressure) / (T * T);
+		double Q4 = d + e * (Xv * Xv);
 		return 1 - Q1 * Q2 + Q3 * Q4;
 	}
 
 	/**
-	 * Arguments checker for allowable range
+	 * Returns the mole fraction of water vapour <i>Xv</i>.
 	 * 
-	 * @param airTemperature
-	 *            current air temperature in laboratory in <sup>O</sup>C.
 	 * @param airHumidity
 	 *            current relative humidity in laboratory (relative humidity reading
 	 *            of "53%" is expressed as 0.53).
 	 * @param pressure
 	 *            atmospheric pressure in pascals.
-	 * @return throw Exception.
+	 * @param f
+	 *            enhancement factor.
+	 * @param psv
+	 *            vapour pressure at saturation.
+	 * @return mole fraction of water vapour.
 	 */
-	private double waterVapourMoleFraction(double airTemperature, double airHumidity, double pressure) {
-		return airHumidity
-				* (enhancementFactor(airTemperature, pressure) * saturationVapourPressure(airTemperature) / pressure);
+	private double waterVapourMoleFraction(double airHumidity, double pressure, double f, double psv) {
+		return airHumidity * (f * psv / pressure);
 	}
 
 	/**
@@ -126,7 +131,7 @@ abstract class AirDensityCIPMBase implements AirDensity {
 	 * @return estimated molar mass of dry air.
 	 */
 	public double dryAirMolarMass(double carbonDioxideFraction) {
-		return MOLAR_MASS_OF_DRY_AIR + (12.011 * (carbonDioxideFraction - CARBON_DIOXIDE_FRACTION)) * 10E-3;
+		return MOLAR_MASS_OF_DRY_AIR + MOLAR_MASS_OF_CARBON * (carbonDioxideFraction - CARBON_DIOXIDE_FRACTION);
 	}
 
 	/**
@@ -139,21 +144,68 @@ abstract class AirDensityCIPMBase implements AirDensity {
 	 * @return enhancement factor of the arguments.
 	 */
 	private  double enhancementFactor(double airTemperature, double pressure) {
-		final double alpha = 1.00062;
-		final double beta = 3.14E-8;
-		final double gamma = 5.6E-7;
-		return alpha + beta * pressure + gamma * Math.pow(airTemperature, 2);
+		return ENHANCEMENT_ALPHA + ENHANCEMENT_BETA * pressure
+				+ ENHANCEMENT_GAMMA * (airTemperature * airTemperature);
+	}
+
+	/**
+	 * Returns the air density from already calculated intermediate quantities.
+	 */
+	private double airDensity(double airTemperature, double pressure, double Xv, double Z, double Ma) {
+		double Q1 = (pressure * Ma) / (Z * MOLAR_GAS_CONSTANT * Converter.CelsiusToKelvin(airTemperature));
+		double Q2 = Xv * (1 - MOLAR_MASS_OF_WATER / Ma);
+		return Q1 * (1 - Q2);
 	}
 
 	@Override
 	public double getAirDensity(double airTemperature, double airHumidity, double pressure,
 			double carbonDioxideFraction) {
-		
+		double psv = saturationVapourPressure(airTemperature);
+		double f = enhancementFactor(airTemperature, pressure);
+		double Xv = waterVapourMoleFraction(airHumidity, pressure, f, psv);
+		double Z = compressibilityFactor(airTemperature, pressure, Xv);
+		return airDensity(airTemperature, pressure, Xv, Z, dryAirMolarMass(carbonDioxideFraction));
+	}
+
+	/**
+	 * Calculates the air density in a single pass and stores it in {@code result}
+	 * together with every intermediate quantity: <i>p<sub>sv</sub></i>,
+	 * <i>f</i>, <i>x<sub>v</sub></i>, <i>Z</i> and <i>M<sub>a</sub></i>.
+	 * 
+	 * @param airTemperature
+	 *            current air temperature in laboratory in <sup>O</sup>C.
+	 * @param airHumidity
+	 *            current relative humidity in laboratory (relative humidity reading
+	 *            of "53%" is expressed as 0.53).
+	 * @param pressure
+	 *            atmospheric pressure in pascals.
+	 * @param carbonDioxideFraction
+	 *            mole fraction of carbon dioxide in laboratory air.
+	 * @param result
+	 *            holder to fill, may be reused between calls.
+	 * @return {@code result}.
+	 */
+	public AirDensityResult evaluate(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction, AirDensityResult result) {
+		double psv = saturationVapourPressure(airTemperature);
+		double f = enhancementFactor(airTemperature, pressure);
+		double Xv = waterVapourMoleFraction(airHumidity, pressure, f, psv);
+		double Z = compressibilityFactor(airTemperature, pressure, Xv);
 		double Ma = dryAirMolarMass(carbonDioxideFraction);
-		double Q1 = (pressure * Ma) / (compressibilityFactor(airTemperature, airHumidity, pressure) * MOLAR_GAS_CONSTANT
-				* Converter.CelsiusToKelvin(airTemperature));
-		double Q2 = waterVapourMoleFraction(airTemperature, airHumidity, pressure) * (1 - MOLAR_MASS_OF_WATER / Ma);
-		return Q1 * (1 - Q2);
+		double rho = airDensity(airTemperature, pressure, Xv, Z, Ma);
+		result.set(airTemperature, airHumidity, pressure, carbonDioxideFraction, psv, f, Xv, Z, Ma, rho);
+		return result;
+	}
+
+	/**
+	 * Calculates the air density in a single pass together with every intermediate
+	 * quantity, using the average mole fraction of carbon dioxide.
+	 * 
+	 * @see #evaluate(double, double, double, double, AirDensityResult)
+	 */
+	public AirDensityResult evaluate(double airTemperature, double airHumidity, double pressure,
+			AirDensityResult result) {
+		return evaluate(airTemperature, airHumidity, pressure, CARBON_DIOXIDE_FRACTION, result);
 	}
 
 	@Override
@@ -161,6 +213,131 @@ abstract class AirDensityCIPMBase implements AirDensity {
 		return getAirDensity(airTemperature, airHumidity, pressure, CARBON_DIOXIDE_FRACTION);
 	}
 
+	/**
+	 * Calculates the air density and its partial derivatives in a single pass.
+	 * Every intermediate quantity is carried together with its derivatives
+	 * (forward-mode differentiation written out by hand), so the full gradient
+	 * costs about one evaluation of the equation.
+	 */
+	@Override
+	public AirDensityGradient getAirDensityGradient(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction, AirDensityGradient result) {
+		final double t = airTemperature;
+		final double h = airHumidity;
+		final double p = pressure;
+		final double T = Converter.CelsiusToKelvin(t);
+		final double TT = T * T;
+
+		// Vapour pressure at saturation, depends on t only
+		double psv = saturationVapourPressure(t);
+		double psvT = psv * (2 * A * T + B - D / TT);
+
+		// Enhancement factor
+		double f = enhancementFactor(t, p);
+		double fT = 2 * ENHANCEMENT_GAMMA * t;
+		double fP = ENHANCEMENT_BETA;
+
+		// Mole fraction of water vapour
+		double Xv = waterVapourMoleFraction(h, p, f, psv);
+		double XvT = h * (fT * psv + f * psvT) / p;
+		double XvH = f * psv / p;
+		double XvP = h * psv * (fP * p - f) / (p * p);
+
+		// Compressibility factor Z = 1 - p/T * Q2 + p^2/T^2 * Q4
+		double Z = compressibilityFactor(t, p, Xv);
+		double Q2 = a0 + a1 * t + a2 * (t * t) + (b0 + b1 * t) * Xv + (c0 + c1 * t) * (Xv * Xv);
+		double Q2Xv = b0 + b1 * t + 2 * (c0 + c1 * t) * Xv;
+		double Q2T = a1 + 2 * a2 * t + b1 * Xv + c1 * (Xv * Xv) + Q2Xv * XvT;
+		double Q4 = d + e * (Xv * Xv);
+		double Q4Xv = 2 * e * Xv;
+		double Q1 = p / T;
+		double Q3 = (p * p) / TT;
+		double ZT = Q1 / T * Q2 - Q1 * Q2T - 2 * Q3 / T * Q4 + Q3 * Q4Xv * XvT;
+		double ZH = (-Q1 * Q2Xv + Q3 * Q4Xv) * XvH;
+		double ZP = -Q2 / T - Q1 * Q2Xv * XvP + 2 * p / TT * Q4 + Q3 * Q4Xv * XvP;
+
+		// Molar mass of dry air
+		double Ma = dryAirMolarMass(carbonDioxideFraction);
+		double MaX = MOLAR_MASS_OF_CARBON;
+
+		// rho = P * S, P = p * Ma / (Z * R * T), S = 1 - Xv * (1 - Mv / Ma)
+		double rho = airDensity(t, p, Xv, Z, Ma);
+		double P = (p * Ma) / (Z * MOLAR_GAS_CONSTANT * T);
+		double S = 1 - Xv * (1 - MOLAR_MASS_OF_WATER / Ma);
+		double SXv = -(1 - MOLAR_MASS_OF_WATER / Ma);
+
+		double rhoT = P * (-(ZT / Z + 1 / T) * S + SXv * XvT);
+		double rhoH = P * (-ZH / Z * S + SXv * XvH);
+		double rhoP = P * ((1 / p - ZP / Z) * S + SXv * XvP);
+		double rhoX = P * (MaX / Ma * S - Xv * MOLAR_MASS_OF_WATER / (Ma * Ma) * MaX);
+		return result.set(rho, rhoT, rhoH, rhoP, rhoX);
+	}
+
+	/**
+	 * Calculates the air density and its partial derivatives in a single pass,
+	 * using the average mole fraction of carbon dioxide.
+	 * 
+	 * @see #getAirDensityGradient(double, double, double, double,
+	 *      AirDensityGradient)
+	 */
+	public AirDensityGradient getAirDensityGradient(double airTemperature, double airHumidity, double pressure,
+			AirDensityGradient result) {
+		return getAirDensityGradient(airTemperature, airHumidity, pressure, CARBON_DIOXIDE_FRACTION, result);
+	}
+
+	@Override
+	public void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure,
+			double[] carbonDioxideFraction, double[] result, int offset, int length) {
+		checkRange(carbonDioxideFraction.length, offset, length);
+		calculate(airTemperature, airHumidity, pressure, carbonDioxideFraction, result, offset, length);
+	}
+
+	@Override
+	public void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure, double[] result,
+			int offset, int length) {
+		calculate(airTemperature, airHumidity, pressure, null, result, offset, length);
+	}
+
+	/**
+	 * Batch kernel of {@link #getAirDensity(double, double, double, double)}. The
+	 * constants are copied into locals and the whole equation is written out in
+	 * the loop body, so the JIT sees a single counted loop without calls.
+	 * 
+	 * @param carbonDioxideFraction
+	 *            mole fractions of carbon dioxide or {@code null} for the
+	 *            average {@link #CARBON_DIOXIDE_FRACTION}.
+	 */
+	private void calculate(double[] airTemperature, double[] airHumidity, double[] pressure,
+			double[] carbonDioxideFraction, double[] result, int offset, int length) {
+		checkRange(airTemperature.length, offset, length);
+		checkRange(airHumidity.length, offset, length);
+		checkRange(pressure.length, offset, length);
+		checkRange(result.length, offset, length);
+
+		final double R = MOLAR_GAS_CONSTANT;
+		final double Mv = MOLAR_MASS_OF_WATER;
+		final double A = this.A, B = this.B, C = this.C, D = this.D;
+		final double a0 = this.a0, a1 = this.a1, a2 = this.a2, b0 = this.b0, b1 = this.b1;
+		final double c0 = this.c0, c1 = this.c1, d = this.d, e = this.e;
+		final double defaultMa = dryAirMolarMass(CARBON_DIOXIDE_FRACTION);
+
+		for (int i = offset, end = offset + length; i < end; i++) {
+			double t = airTemperature[i];
+			double p = pressure[i];
+			double Ma = carbonDioxideFraction == null ? defaultMa : dryAirMolarMass(carbonDioxideFraction[i]);
+			double T = Converter.CelsiusToKelvin(t);
+			double tt = t * t;
+			double TT = T * T;
+			double psv = Math.exp(A * TT + B * T + C + D / T);
+			double f = ENHANCEMENT_ALPHA + ENHANCEMENT_BETA * p + ENHANCEMENT_GAMMA * tt;
+			double Xv = airHumidity[i] * (f * psv / p);
+			double XvXv = Xv * Xv;
+			double Z = 1 - p / T * (a0 + a1 * t + a2 * tt + (b0 + b1 * t) * Xv + (c0 + c1 * t) * XvXv)
+					+ p * p / TT * (d + e * XvXv);
+			result[i] = (p * Ma) / (Z * R * T) * (1 - Xv * (1 - Mv / Ma));
+		}
+	}
+
 	@Override
 	public String getEquationName() {
 		return this.EQUATION_NAME;
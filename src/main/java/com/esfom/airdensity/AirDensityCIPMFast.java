@@ -0,0 +1,279 @@
+package com.esfom.airdensity;
+
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_ALPHA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_BETA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_GAMMA;
+import static com.esfom.math.MathUtils.checkRange;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.esfom.munit.Converter;
+
+/**
+ * The class {@code AirDensityCIPMFast} is an opt-in fast variant of a CIPM
+ * equation. The vapour pressure at saturation, which needs {@code Math.exp} and
+ * a division in the exact equation, is replaced by piecewise polynomials: the
+ * temperature range is split into 1 <sup>O</sup>C segments and each segment
+ * holds a degree 5 Chebyshev approximation of <i>p<sub>sv</sub></i>, evaluated
+ * by the Horner scheme. Temperatures outside the range use the exact formula.
+ * The rest of the equation is rearranged to three divisions instead of six, so
+ * the results may differ from the exact equation in the last digits; over -20
+ * ... 60 <sup>O</sup>C, 0 - 100 %RH and 60 - 110 kPa the relative error of the
+ * air density stays below 10<sup>-12</sup>.
+ * <p>
+ * The constants of the source equation are copied at construction and the
+ * polynomials are fitted to them, so the fast variant is a snapshot: later
+ * changes of the source are not picked up. Only the air density methods use the
+ * approximation; {@link #evaluate(double, double, double, double, AirDensityResult)
+ * evaluate} and the gradient keep the exact formula. Set this equation only on
+ * the {@link Air} instances that may use it; certified reports keep the exact
+ * equation.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensityCIPMFast extends AirDensityCIPMBase {
+
+	private static final Logger log = LoggerFactory.getLogger(AirDensityCIPMFast.class);
+
+	private static final int DEGREE = 5;
+	private static final int TERMS = DEGREE + 1;
+	// Temperature grid points per segment for getMaxRelativeError()
+	private static final int CHECK_POINTS = 1000;
+
+	private final AirDensityCIPMBase source;
+	private final double minTemperature;
+	private final double maxTemperature;
+	private final int segments;
+	// Monomial coefficients in u = 2 * (t - segment start) - 1, TERMS per segment
+	private final double[] coefficients;
+	// NaN until getMaxRelativeError() is called
+	private volatile double maxRelativeError = Double.NaN;
+
+	/**
+	 * Creates the fast variant of the equation for -20 ... 60 <sup>O</sup>C.
+	 * 
+	 * @param source
+	 *            CIPM equation, e.g. from {@link AirDensityRegistry}.
+	 * @throws IllegalArgumentException
+	 *             if the source is not a CIPM equation.
+	 */
+	public AirDensityCIPMFast(AirDensity source) throws IllegalArgumentException {
+		this(source, -20, 60);
+	}
+
+	/**
+	 * Creates the fast variant of the equation.
+	 * 
+	 * @param source
+	 *            CIPM equation, e.g. from {@link AirDensityRegistry}.
+	 * @param minTemperature
+	 *            lowest approximated temperature in <sup>O</sup>C.
+	 * @param maxTemperature
+	 *            highest approximated temperature in <sup>O</sup>C, rounded up to
+	 *            whole segments.
+	 * @throws IllegalArgumentException
+	 *             if the source is not a CIPM equation.
+	 */
+	public AirDensityCIPMFast(AirDensity source, double minTemperature, double maxTemperature)
+			throws IllegalArgumentException {
+		if (!(source instanceof AirDensityCIPMBase))
+			throw new IllegalArgumentException(source.getEquationName() + " is not a CIPM equation");
+		if (!(maxTemperature > minTemperature))
+			throw new IllegalArgumentException("Temperature range [" + minTemperature + ", " + maxTemperature
+					+ "] is not valid");
+		this.source = (AirDensityCIPMBase) source;
+
+		// Snapshot of the source constants, the polynomials are fitted to them
+		this.EQUATION_NAME = source.getEquationName() + " (fast)";
+		this.MOLAR_GAS_CONSTANT = this.source.MOLAR_GAS_CONSTANT;
+		this.MOLAR_MASS_OF_DRY_AIR = this.source.MOLAR_MASS_OF_DRY_AIR;
+		this.MOLAR_MASS_OF_WATER = this.source.MOLAR_MASS_OF_WATER;
+		this.CARBON_DIOXIDE_FRACTION = this.source.CARBON_DIOXIDE_FRACTION;
+
+		this.A = this.source.A;
+		this.B = this.source.B;
+		this.C = this.source.C;
+		this.D = this.source.D;
+
+		this.a0 = this.source.a0;
+		this.a1 = this.source.a1;
+		this.a2 = this.source.a2;
+		this.b0 = this.source.b0;
+		this.b1 = this.source.b1;
+		this.c0 = this.source.c0;
+		this.c1 = this.source.c1;
+		this.d = this.source.d;
+		this.e = this.source.e;
+
+		this.minTemperature = minTemperature;
+		this.segments = (int) Math.ceil(maxTemperature - minTemperature);
+		this.maxTemperature = minTemperature + segments;
+		this.coefficients = new double[segments * TERMS];
+		for (int s = 0; s < segments; s++) {
+			fit(s);
+		}
+	}
+
+	/**
+	 * Fits the segment with a Chebyshev series and stores it as a polynomial in u.
+	 */
+	private void fit(int segment) {
+		double[] chebyshev = new double[TERMS];
+		for (int k = 0; k < TERMS; k++) {
+			double angle = Math.PI * (k + 0.5) / TERMS;
+			double t = minTemperature + segment + 0.5 * (Math.cos(angle) + 1);
+			double value = exactSaturationVapourPressure(t);
+			for (int j = 0; j < TERMS; j++) {
+				chebyshev[j] += 2.0 / TERMS * value * Math.cos(j * angle);
+			}
+		}
+		chebyshev[0] /= 2;
+
+		// T(j) = 2u * T(j-1) - T(j-2) in monomial form
+		double[] previous = new double[TERMS];
+		double[] current = new double[TERMS];
+		previous[0] = 1;
+		current[1] = 1;
+		int offset = segment * TERMS;
+		coefficients[offset] += chebyshev[0];
+		for (int i = 0; i < TERMS; i++)
+			coefficients[offset + i] += chebyshev[1] * current[i];
+		for (int j = 2; j < TERMS; j++) {
+			double[] next = new double[TERMS];
+			for (int i = 0; i < TERMS; i++) {
+				next[i] = (i > 0 ? 2 * current[i - 1] : 0) - previous[i];
+				coefficients[offset + i] += chebyshev[j] * next[i];
+			}
+			previous = current;
+			current = next;
+		}
+	}
+
+	/**
+	 * The exact vapour pressure at saturation with the copied constants.
+	 */
+	private double exactSaturationVapourPressure(double airTemperature) {
+		double T = Converter.CelsiusToKelvin(airTemperature);
+		return Math.exp(A * (T * T) + B * T + C + D / T);
+	}
+
+	/**
+	 * The approximated vapour pressure at saturation, exact outside the
+	 * approximated temperature range.
+	 */
+	private double approximateSaturationVapourPressure(double airTemperature) {
+		double x = airTemperature - minTemperature;
+		int segment = (int) x;
+		if (!(x >= 0) || segment >= segments) {
+			return exactSaturationVapourPressure(airTemperature);
+		}
+		double u = 2 * (x - segment) - 1;
+		int i = segment * TERMS;
+		return coefficients[i] + u * (coefficients[i + 1] + u * (coefficients[i + 2]
+				+ u * (coefficients[i + 3] + u * (coefficients[i + 4] + u * coefficients[i + 5]))));
+	}
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction) {
+		double Ma = dryAirMolarMass(carbonDioxideFraction);
+		return density(airTemperature, airHumidity, pressure, Ma, 1 - MOLAR_MASS_OF_WATER / Ma);
+	}
+
+	@Override
+	public void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure,
+			double[] carbonDioxideFraction, double[] result, int offset, int length) {
+		checkRange(airTemperature.length, offset, length);
+		checkRange(airHumidity.length, offset, length);
+		checkRange(pressure.length, offset, length);
+		checkRange(carbonDioxideFraction.length, offset, length);
+		checkRange(result.length, offset, length);
+		for (int i = offset, end = offset + length; i < end; i++) {
+			double Ma = dryAirMolarMass(carbonDioxideFraction[i]);
+			result[i] = density(airTemperature[i], airHumidity[i], pressure[i], Ma, 1 - MOLAR_MASS_OF_WATER / Ma);
+		}
+	}
+
+	@Override
+	public void getAirDensity(double[] airTemperature, double[] airHumidity, double[] pressure, double[] result,
+			int offset, int length) {
+		checkRange(airTemperature.length, offset, length);
+		checkRange(airHumidity.length, offset, length);
+		checkRange(pressure.length, offset, length);
+		checkRange(result.length, offset, length);
+		double Ma = dryAirMolarMass(CARBON_DIOXIDE_FRACTION);
+		double water = 1 - MOLAR_MASS_OF_WATER / Ma;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = density(airTemperature[i], airHumidity[i], pressure[i], Ma, water);
+		}
+	}
+
+	/**
+	 * The CIPM equation with the approximated <i>p<sub>sv</sub></i> and shared
+	 * reciprocals.
+	 * 
+	 * @param water
+	 *            1 - Mv/Ma
+	 */
+	private double density(double t, double h, double p, double Ma, double water) {
+		double T = Converter.CelsiusToKelvin(t);
+		double invT = 1 / T;
+		double tt = t * t;
+		double psv = approximateSaturationVapourPressure(t);
+		double f = ENHANCEMENT_ALPHA + ENHANCEMENT_BETA * p + ENHANCEMENT_GAMMA * tt;
+		double Xv = h * f * psv / p;
+		double XvXv = Xv * Xv;
+		double pT = p * invT;
+		double Z = 1 - pT * (a0 + a1 * t + a2 * tt + (b0 + b1 * t) * Xv + (c0 + c1 * t) * XvXv)
+				+ pT * pT * (d + e * XvXv);
+		return pT * Ma / (Z * MOLAR_GAS_CONSTANT) * (1 - Xv * water);
+	}
+
+	/**
+	 * @return exact equation this variant approximates.
+	 */
+	public AirDensity getSource() {
+		return source;
+	}
+
+	/**
+	 * Compares the approximated saturation vapour pressure with the exact formula
+	 * on a 0.001 <sup>O</sup>C grid over the approximated range. The comparison
+	 * runs on the first call only.
+	 * 
+	 * @return maximum relative error of the saturation vapour pressure.
+	 */
+	public double getMaxRelativeError() {
+		double error = maxRelativeError;
+		if (Double.isNaN(error)) {
+			error = 0;
+			for (int i = 0; i <= segments * CHECK_POINTS; i++) {
+				double t = minTemperature + (double) i / CHECK_POINTS;
+				double exact = exactSaturationVapourPressure(t);
+				error = Math.max(error, Math.abs(approximateSaturationVapourPressure(t) / exact - 1));
+			}
+			maxRelativeError = error;
+			log.debug("{}: max relative error of saturation vapour pressure {} in [{}, {}]", EQUATION_NAME, error,
+					minTemperature, maxTemperature);
+		}
+		return error;
+	}
+
+	/**
+	 * @return lowest approximated temperature in <sup>O</sup>C.
+	 */
+	public double getMinTemperature() {
+		return minTemperature;
+	}
+
+	/**
+	 * @return highest approximated temperature in <sup>O</sup>C.
+	 */
+	public double getMaxTemperature() {
+		return maxTemperature;
+	}
+
+}
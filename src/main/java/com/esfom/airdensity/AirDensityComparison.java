@@ -0,0 +1,180 @@
+package com.esfom.airdensity;
+
+import static com.esfom.airdensity.CIPMCoefficients.CARBON_DIOXIDE_FRACTION;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_ALPHA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_BETA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_GAMMA;
+import static com.esfom.airdensity.CIPMCoefficients.MOLAR_MASS_OF_CARBON;
+import static com.esfom.airdensity.CIPMCoefficients.MOLAR_MASS_OF_WATER;
+import static com.esfom.airdensity.CIPMCoefficients.a0;
+import static com.esfom.airdensity.CIPMCoefficients.a1;
+import static com.esfom.airdensity.CIPMCoefficients.a2;
+import static com.esfom.airdensity.CIPMCoefficients.b0;
+import static com.esfom.airdensity.CIPMCoefficients.b1;
+import static com.esfom.airdensity.CIPMCoefficients.c0;
+import static com.esfom.airdensity.CIPMCoefficients.c1;
+import static com.esfom.airdensity.CIPMCoefficients.d;
+import static com.esfom.airdensity.CIPMCoefficients.e;
+import static com.esfom.math.MathUtils.checkRange;
+
+import com.esfom.airdensity.CIPMCoefficients.CIPM1981;
+import com.esfom.airdensity.CIPMCoefficients.CIPM1991;
+import com.esfom.airdensity.CIPMCoefficients.CIPM2007;
+import com.esfom.munit.Converter;
+
+/**
+ * The class {@code AirDensityComparison} calculates the air density of the same
+ * point under CIPM-1981, CIPM-1981/91 and CIPM-2007 in one pass.
+ * <p>
+ * The three equations differ only in constants. The Kelvin temperature, powers
+ * of temperature, the enhancement factor and the pressure terms of the
+ * compressibility factor are calculated once. Every equation takes the vapour
+ * pressure at saturation from its own coefficients; while the CIPM-1981/91 and
+ * CIPM-2007 coefficients are equal, CIPM-2007 reuses the vapour pressure, the
+ * mole fraction of water vapour and the compressibility factor of CIPM-1981/91
+ * and differs only in the molar gas constant and the molar mass of dry air.
+ * The results are bit-identical to
+ * {@link AirDensityCIPM1981}, {@link AirDensityCIPM1991} and
+ * {@link AirDensityCIPM2007}.
+ * <p>
+ * The class has no state and is thread-safe.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensityComparison {
+
+	// Compile-time constant, the unused branch is removed by the compiler
+	private static final boolean SAME_PSV_1991_2007 = CIPM1991.A == CIPM2007.A && CIPM1991.B == CIPM2007.B
+			&& CIPM1991.C == CIPM2007.C && CIPM1991.D == CIPM2007.D;
+
+	/**
+	 * Calculates the air density by every CIPM equation.
+	 *
+	 * @param airTemperature
+	 *            current air temperature in laboratory in <sup>O</sup>C.
+	 * @param airHumidity
+	 *            current relative humidity in laboratory (relative humidity reading
+	 *            of "53%" is expressed as 0.53).
+	 * @param pressure
+	 *            atmospheric pressure in pascals.
+	 * @param carbonDioxideFraction
+	 *            mole fraction of carbon dioxide in laboratory air.
+	 * @param result
+	 *            holder to fill, may be reused between calls.
+	 * @return {@code result}.
+	 */
+	public AirDensityComparisonResult evaluate(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction, AirDensityComparisonResult result) {
+		final double t = airTemperature;
+		final double h = airHumidity;
+		final double p = pressure;
+
+		// Independent of the equation constants
+		double T = Converter.CelsiusToKelvin(t);
+		double tt = t * t;
+		double TT = T * T;
+		double f = ENHANCEMENT_ALPHA + ENHANCEMENT_BETA * p + ENHANCEMENT_GAMMA * tt;
+		double Q1 = p / T;
+		double Q3 = p * p / TT;
+		double Q2t = a0 + a1 * t + a2 * tt;
+		double bt = b0 + b1 * t;
+		double ct = c0 + c1 * t;
+		double dx = carbonDioxideFraction - CARBON_DIOXIDE_FRACTION;
+
+		// CIPM-1981
+		double psv = Math.exp(CIPM1981.A * TT + CIPM1981.B * T + CIPM1981.C + CIPM1981.D / T);
+		double Xv = h * (f * psv / p);
+		double XvXv = Xv * Xv;
+		double Z = 1 - Q1 * (Q2t + bt * Xv + ct * XvXv) + Q3 * (d + e * XvXv);
+		double rho1981 = density(p, T, Xv, Z, CIPM1981.MOLAR_GAS_CONSTANT,
+				CIPM1981.MOLAR_MASS_OF_DRY_AIR + MOLAR_MASS_OF_CARBON * dx);
+
+		// CIPM-1981/91
+		psv = Math.exp(CIPM1991.A * TT + CIPM1991.B * T + CIPM1991.C + CIPM1991.D / T);
+		Xv = h * (f * psv / p);
+		XvXv = Xv * Xv;
+		Z = 1 - Q1 * (Q2t + bt * Xv + ct * XvXv) + Q3 * (d + e * XvXv);
+		double rho1991 = density(p, T, Xv, Z, CIPM1991.MOLAR_GAS_CONSTANT,
+				CIPM1991.MOLAR_MASS_OF_DRY_AIR + MOLAR_MASS_OF_CARBON * dx);
+
+		// CIPM-2007, psv, Xv and Z are reused while the coefficients are the same
+		if (!SAME_PSV_1991_2007) {
+			psv = Math.exp(CIPM2007.A * TT + CIPM2007.B * T + CIPM2007.C + CIPM2007.D / T);
+			Xv = h * (f * psv / p);
+			XvXv = Xv * Xv;
+			Z = 1 - Q1 * (Q2t + bt * Xv + ct * XvXv) + Q3 * (d + e * XvXv);
+		}
+		double rho2007 = density(p, T, Xv, Z, CIPM2007.MOLAR_GAS_CONSTANT,
+				CIPM2007.MOLAR_MASS_OF_DRY_AIR + MOLAR_MASS_OF_CARBON * dx);
+
+		result.set(rho1981, rho1991, rho2007);
+		return result;
+	}
+
+	/**
+	 * Calculates the air density by every CIPM equation, using the average mole
+	 * fraction of carbon dioxide.
+	 *
+	 * @see #evaluate(double, double, double, double, AirDensityComparisonResult)
+	 */
+	public AirDensityComparisonResult evaluate(double airTemperature, double airHumidity, double pressure,
+			AirDensityComparisonResult result) {
+		return evaluate(airTemperature, airHumidity, pressure, CARBON_DIOXIDE_FRACTION, result);
+	}
+
+	/**
+	 * Calculates the air density by every CIPM equation for a dataset. Element
+	 * {@code i} of every output array receives the air density of element
+	 * {@code i} of the input arrays.
+	 *
+	 * @param airTemperature
+	 *            air temperatures in <sup>O</sup>C.
+	 * @param airHumidity
+	 *            relative humidities.
+	 * @param pressure
+	 *            atmospheric pressures in pascals.
+	 * @param carbonDioxideFraction
+	 *            mole fractions of carbon dioxide or {@code null} for the average
+	 *            mole fraction.
+	 * @param cipm1981
+	 *            array receiving the air densities by CIPM-1981.
+	 * @param cipm1991
+	 *            array receiving the air densities by CIPM-1981/91.
+	 * @param cipm2007
+	 *            array receiving the air densities by CIPM-2007.
+	 * @param offset
+	 *            index of the first element.
+	 * @param length
+	 *            number of elements.
+	 * @throws IndexOutOfBoundsException
+	 *             if the range does not fit any of the arrays.
+	 */
+	public void evaluate(double[] airTemperature, double[] airHumidity, double[] pressure,
+			double[] carbonDioxideFraction, double[] cipm1981, double[] cipm1991, double[] cipm2007, int offset,
+			int length) {
+		checkRange(airTemperature.length, offset, length);
+		checkRange(airHumidity.length, offset, length);
+		checkRange(pressure.length, offset, length);
+		if (carbonDioxideFraction != null)
+			checkRange(carbonDioxideFraction.length, offset, length);
+		checkRange(cipm1981.length, offset, length);
+		checkRange(cipm1991.length, offset, length);
+		checkRange(cipm2007.length, offset, length);
+
+		AirDensityComparisonResult result = new AirDensityComparisonResult();
+		for (int i = offset, end = offset + length; i < end; i++) {
+			double x = carbonDioxideFraction == null ? CARBON_DIOXIDE_FRACTION : carbonDioxideFraction[i];
+			evaluate(airTemperature[i], airHumidity[i], pressure[i], x, result);
+			cipm1981[i] = result.getAirDensityCIPM1981();
+			cipm1991[i] = result.getAirDensityCIPM1991();
+			cipm2007[i] = result.getAirDensityCIPM2007();
+		}
+	}
+
+	private static double density(double p, double T, double Xv, double Z, double R, double Ma) {
+		return (p * Ma) / (Z * R * T) * (1 - Xv * (1 - MOLAR_MASS_OF_WATER / Ma));
+	}
+
+}
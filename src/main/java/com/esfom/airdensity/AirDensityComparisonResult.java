@@ -0,0 +1,74 @@
+package com.esfom.airdensity;
+
+/**
+ * The class {@code AirDensityComparisonResult} holds the air density of one
+ * point under CIPM-1981, CIPM-1981/91 and CIPM-2007 together with the pairwise
+ * differences. Instances are mutable and may be reused between calls of
+ * {@link AirDensityComparison#evaluate(double, double, double, double, AirDensityComparisonResult)}
+ * to avoid allocation.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensityComparisonResult {
+
+	private double airDensityCIPM1981;
+	private double airDensityCIPM1991;
+	private double airDensityCIPM2007;
+
+	void set(double airDensityCIPM1981, double airDensityCIPM1991, double airDensityCIPM2007) {
+		this.airDensityCIPM1981 = airDensityCIPM1981;
+		this.airDensityCIPM1991 = airDensityCIPM1991;
+		this.airDensityCIPM2007 = airDensityCIPM2007;
+	}
+
+	/**
+	 * @return air density by CIPM-1981 (kg/m<sup>3</sup>).
+	 */
+	public double getAirDensityCIPM1981() {
+		return airDensityCIPM1981;
+	}
+
+	/**
+	 * @return air density by CIPM-1981/91 (kg/m<sup>3</sup>).
+	 */
+	public double getAirDensityCIPM1991() {
+		return airDensityCIPM1991;
+	}
+
+	/**
+	 * @return air density by CIPM-2007 (kg/m<sup>3</sup>).
+	 */
+	public double getAirDensityCIPM2007() {
+		return airDensityCIPM2007;
+	}
+
+	/**
+	 * @return CIPM-1981/91 minus CIPM-1981 (kg/m<sup>3</sup>).
+	 */
+	public double getDifference1991To1981() {
+		return airDensityCIPM1991 - airDensityCIPM1981;
+	}
+
+	/**
+	 * @return CIPM-2007 minus CIPM-1981 (kg/m<sup>3</sup>).
+	 */
+	public double getDifference2007To1981() {
+		return airDensityCIPM2007 - airDensityCIPM1981;
+	}
+
+	/**
+	 * @return CIPM-2007 minus CIPM-1981/91 (kg/m<sup>3</sup>).
+	 */
+	public double getDifference2007To1991() {
+		return airDensityCIPM2007 - airDensityCIPM1991;
+	}
+
+	@Override
+	public String toString() {
+		return "AirDensityComparisonResult [airDensityCIPM1981=" + airDensityCIPM1981 + ", airDensityCIPM1991="
+				+ airDensityCIPM1991 + ", airDensityCIPM2007=" + airDensityCIPM2007 + "]";
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.esfom.airdensity;
+
+/**
+ * The class {@code AirDensityGradient} holds the air density together with its
+ * partial derivatives (sensitivity coefficients) with respect to air
+ * temperature, humidity, pressure and mole fraction of carbon dioxide.
+ * Instances are mutable and may be reused between calls of
+ * {@link AirDensity#getAirDensityGradient(double, double, double, double, AirDensityGradient)}.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensityGradient {
+
+	private double airDensity;
+	private double temperatureDerivative;
+	private double humidityDerivative;
+	private double pressureDerivative;
+	private double carbonDioxideFractionDerivative;
+
+	/**
+	 * Sets the air density and its partial derivatives.
+	 *
+	 * @return this holder.
+	 */
+	public AirDensityGradient set(double airDensity, double temperatureDerivative, double humidityDerivative,
+			double pressureDerivative, double carbonDioxideFractionDerivative) {
+		this.airDensity = airDensity;
+		this.temperatureDerivative = temperatureDerivative;
+		this.humidityDerivative = humidityDerivative;
+		this.pressureDerivative = pressureDerivative;
+		this.carbonDioxideFractionDerivative = carbonDioxideFractionDerivative;
+		return this;
+	}
+
+	/**
+	 * @return air density (kg/m<sup>3</sup>).
+	 */
+	public double getAirDensity() {
+		return airDensity;
+	}
+
+	/**
+	 * @return &part;&rho;/&part;t (kg m<sup>-3</sup> <sup>O</sup>C<sup>-1</sup>).
+	 */
+	public double getTemperatureDerivative() {
+		return temperatureDerivative;
+	}
+
+	/**
+	 * @return &part;&rho;/&part;h, per unit of relative humidity (1.0 = 100%).
+	 */
+	public double getHumidityDerivative() {
+		return humidityDerivative;
+	}
+
+	/**
+	 * @return &part;&rho;/&part;p (kg m<sup>-3</sup> Pa<sup>-1</sup>).
+	 */
+	public double getPressureDerivative() {
+		return pressureDerivative;
+	}
+
+	/**
+	 * @return &part;&rho;/&part;x<sub>CO2</sub> (kg m<sup>-3</sup> per mol/mol).
+	 */
+	public double getCarbonDioxideFractionDerivative() {
+		return carbonDioxideFractionDerivative;
+	}
+
+	/**
+	 * Returns the combined standard uncertainty of the air density by the law of
+	 * propagation of uncertainty for uncorrelated inputs.
+	 *
+	 * @param temperatureUncertainty
+	 *            standard uncertainty of air temperature in <sup>O</sup>C.
+	 * @param humidityUncertainty
+	 *            standard uncertainty of relative humidity (1.0 = 100%).
+	 * @param pressureUncertainty
+	 *            standard uncertainty of pressure in pascals.
+	 * @param carbonDioxideFractionUncertainty
+	 *            standard uncertainty of mole fraction of carbon dioxide.
+	 * @return combined standard uncertainty (kg/m<sup>3</sup>).
+	 */
+	public double getCombinedStandardUncertainty(double temperatureUncertainty, double humidityUncertainty,
+			double pressureUncertainty, double carbonDioxideFractionUncertainty) {
+		double ut = temperatureDerivative * temperatureUncertainty;
+		double uh = humidityDerivative * humidityUncertainty;
+		double up = pressureDerivative * pressureUncertainty;
+		double ux = carbonDioxideFractionDerivative * carbonDioxideFractionUncertainty;
+		return Math.sqrt(ut * ut + uh * uh + up * up + ux * ux);
+	}
+
+	@Override
+	public String toString() {
+		return "AirDensityGradient [airDensity=" + airDensity + ", temperatureDerivative=" + temperatureDerivative
+				+ ", humidityDerivative=" + humidityDerivative + ", pressureDerivative=" + pressureDerivative
+				+ ", carbonDioxideFractionDerivative=" + carbonDioxideFractionDerivative + "]";
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.esfom.airdensity;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class {@code AirDensityRegistry} keeps one shared instance of every air
+ * density equation, looked up by {@link AirDensity#getEquationName() name}
+ * (e.g. "CIPM-2007") or by class. The equations hold only constants after
+ * construction, so the instances are safe to share between threads.
+ * <p>
+ * The CIPM equations are registered eagerly. Third-party equations are
+ * discovered with {@link ServiceLoader} from
+ * {@code META-INF/services/com.esfom.airdensity.AirDensity} or registered with
+ * {@link #register(AirDensity)}. A class that is not registered is
+ * instantiated once through its public no-argument constructor and cached.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public final class AirDensityRegistry {
+
+	private static final Logger log = LoggerFactory.getLogger(AirDensityRegistry.class);
+
+	private static final Map<String, AirDensity> BY_NAME = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, AirDensity> BY_CLASS = new ConcurrentHashMap<>();
+
+	private static final AirDensity DEFAULT = new AirDensityCIPM2007();
+
+	static {
+		register(new AirDensityCIPM1981());
+		register(new AirDensityCIPM1991());
+		register(DEFAULT);
+		loadServices(Thread.currentThread().getContextClassLoader());
+	}
+
+	private AirDensityRegistry() {
+	}
+
+	/**
+	 * Registers a shared equation instance under its name and class, replacing
+	 * an earlier registration.
+	 * 
+	 * @param airDensity equation to share.
+	 */
+	public static void register(AirDensity airDensity) {
+		BY_NAME.put(airDensity.getEquationName(), airDensity);
+		BY_CLASS.put(airDensity.getClass(), airDensity);
+	}
+
+	/**
+	 * Registers every {@link AirDensity} implementation found by
+	 * {@link ServiceLoader} in the class loader.
+	 * 
+	 * @param classLoader class loader to search, {@code null} for the system one.
+	 */
+	public static void loadServices(ClassLoader classLoader) {
+		try {
+			for (AirDensity airDensity : ServiceLoader.load(AirDensity.class, classLoader)) {
+				log.debug("Found air density equation {}", airDensity.getEquationName());
+				register(airDensity);
+			}
+		} catch (ServiceConfigurationError e) {
+			log.error(e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * Returns the shared equation with the name.
+	 * 
+	 * @param equationName name returned by {@link AirDensity#getEquationName()}.
+	 * @return shared equation instance.
+	 * @throws IllegalArgumentException if no equation has the name.
+	 */
+	public static AirDensity get(String equationName) throws IllegalArgumentException {
+		AirDensity airDensity = BY_NAME.get(equationName);
+		if (airDensity == null)
+			throw new IllegalArgumentException("Unknown air density equation " + equationName);
+		return airDensity;
+	}
+
+	/**
+	 * Returns the shared instance of the equation class. A class that is not
+	 * registered yet is instantiated once and registered.
+	 * 
+	 * @param clazz equation class with a public no-argument constructor.
+	 * @return shared equation instance.
+	 * @throws IllegalArgumentException if the class can not be instantiated.
+	 */
+	public static <T extends AirDensity> T get(Class<T> clazz) throws IllegalArgumentException {
+		AirDensity airDensity = BY_CLASS.get(clazz);
+		if (airDensity == null) {
+			airDensity = BY_CLASS.computeIfAbsent(clazz, AirDensityRegistry::newInstance);
+			BY_NAME.putIfAbsent(airDensity.getEquationName(), airDensity);
+		}
+		return clazz.cast(airDensity);
+	}
+
+	private static AirDensity newInstance(Class<?> clazz) {
+		try {
+			return (AirDensity) clazz.getConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Can not create air density equation " + clazz.getName(), e);
+		}
+	}
+
+	/**
+	 * @return shared {@link AirDensityCIPM2007} instance.
+	 */
+	public static AirDensity getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * @return names of the registered equations.
+	 */
+	public static Set<String> getEquationNames() {
+		return Collections.unmodifiableSet(BY_NAME.keySet());
+	}
+
+}
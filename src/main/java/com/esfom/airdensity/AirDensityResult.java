@@ -0,0 +1,123 @@
+package com.esfom.airdensity;
+
+/**
+ * The class {@code AirDensityResult} holds the air density together with every
+ * intermediate quantity of the "Equations for the Determination of the Density
+ * of Moist Air". Instances are mutable and may be reused between calls of
+ * {@link AirDensityCIPMBase#evaluate(double, double, double, double, AirDensityResult)}
+ * to avoid allocation.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensityResult {
+
+	private double temperature;
+	private double humidity;
+	private double pressure;
+	private double carbonDioxideFraction;
+
+	private double saturationVapourPressure;
+	private double enhancementFactor;
+	private double waterVapourMoleFraction;
+	private double compressibilityFactor;
+	private double dryAirMolarMass;
+	private double airDensity;
+
+	void set(double temperature, double humidity, double pressure, double carbonDioxideFraction,
+			double saturationVapourPressure, double enhancementFactor, double waterVapourMoleFraction,
+			double compressibilityFactor, double dryAirMolarMass, double airDensity) {
+		this.temperature = temperature;
+		this.humidity = humidity;
+		this.pressure = pressure;
+		this.carbonDioxideFraction = carbonDioxideFraction;
+		this.saturationVapourPressure = saturationVapourPressure;
+		this.enhancementFactor = enhancementFactor;
+		this.waterVapourMoleFraction = waterVapourMoleFraction;
+		this.compressibilityFactor = compressibilityFactor;
+		this.dryAirMolarMass = dryAirMolarMass;
+		this.airDensity = airDensity;
+	}
+
+	/**
+	 * @return air temperature in <sup>O</sup>C.
+	 */
+	public double getTemperature() {
+		return temperature;
+	}
+
+	/**
+	 * @return relative humidity (relative humidity reading of "53%" is expressed
+	 *         as 0.53).
+	 */
+	public double getHumidity() {
+		return humidity;
+	}
+
+	/**
+	 * @return atmospheric pressure in pascals.
+	 */
+	public double getPressure() {
+		return pressure;
+	}
+
+	/**
+	 * @return mole fraction of carbon dioxide.
+	 */
+	public double getCarbonDioxideFraction() {
+		return carbonDioxideFraction;
+	}
+
+	/**
+	 * @return vapour pressure at saturation <i>p<sub>sv</sub>/(Pa)</i>.
+	 */
+	public double getSaturationVapourPressure() {
+		return saturationVapourPressure;
+	}
+
+	/**
+	 * @return enhancement factor <i>f</i>.
+	 */
+	public double getEnhancementFactor() {
+		return enhancementFactor;
+	}
+
+	/**
+	 * @return mole fraction of water vapour <i>x<sub>v</sub></i>.
+	 */
+	public double getWaterVapourMoleFraction() {
+		return waterVapourMoleFraction;
+	}
+
+	/**
+	 * @return compressibility factor <i>Z</i>.
+	 */
+	public double getCompressibilityFactor() {
+		return compressibilityFactor;
+	}
+
+	/**
+	 * @return molar mass of dry air <i>Ma/(kg mol<sup>-1</sup>)</i>.
+	 */
+	public double getDryAirMolarMass() {
+		return dryAirMolarMass;
+	}
+
+	/**
+	 * @return air density (kg/m<sup>3</sup>).
+	 */
+	public double getAirDensity() {
+		return airDensity;
+	}
+
+	@Override
+	public String toString() {
+		return "AirDensityResult [temperature=" + temperature + ", humidity=" + humidity + ", pressure=" + pressure
+				+ ", carbonDioxideFraction=" + carbonDioxideFraction + ", saturationVapourPressure="
+				+ saturationVapourPressure + ", enhancementFactor=" + enhancementFactor
+				+ ", waterVapourMoleFraction=" + waterVapourMoleFraction + ", compressibilityFactor="
+				+ compressibilityFactor + ", dryAirMolarMass=" + dryAirMolarMass + ", airDensity=" + airDensity + "]";
+	}
+
+}
@@ -0,0 +1,227 @@
+package com.esfom.airdensity;
+
+/**
+ * The class {@code AirDensitySolver} answers the inverse question: which air
+ * temperature, humidity or pressure gives a target air density when the other
+ * two arguments are known.
+ * <p>
+ * The equation is solved by Newton iteration with the analytic derivative from
+ * {@link AirDensity#getAirDensityGradient(double, double, double, double, AirDensityGradient)}.
+ * The air density is monotonic in every argument, so the sign of each residual
+ * tells on which side the root lies and the search interval shrinks with every
+ * evaluation; a Newton step that leaves the interval is replaced by bisection.
+ * The ends of the interval are evaluated first, so a target out of reach is
+ * rejected after two evaluations. A solution usually takes 2 - 4 evaluations
+ * more.
+ * <p>
+ * The solver keeps a reusable gradient holder and is not thread-safe; use one
+ * instance per thread.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensitySolver {
+
+	/**
+	 * Unknown argument of the air density equation.
+	 */
+	public enum Variable {
+		/**
+		 * Air temperature in <sup>O</sup>C, searched in [-50, 100].
+		 */
+		TEMPERATURE(-50, 100, 20),
+		/**
+		 * Relative humidity (relative humidity reading of "53%" is expressed as
+		 * 0.53), searched in [0, 1].
+		 */
+		HUMIDITY(0, 1, 0.5),
+		/**
+		 * Atmospheric pressure in pascals, searched in [1000, 200000].
+		 */
+		PRESSURE(1000, 200000, 101325);
+
+		private final double low;
+		private final double high;
+		private final double guess;
+
+		private Variable(double low, double high, double guess) {
+			this.low = low;
+			this.high = high;
+			this.guess = guess;
+		}
+	}
+
+	private static final int MAX_EVALUATIONS = 100;
+
+	private final AirDensity airDensity;
+	private final AirDensityGradient gradient = new AirDensityGradient();
+
+	private double carbonDioxideFraction = 0.0004;
+	private double tolerance = 1E-12;
+	private int evaluations;
+
+	/**
+	 * @param airDensity equation to invert.
+	 */
+	public AirDensitySolver(AirDensity airDensity) {
+		this.airDensity = airDensity;
+	}
+
+	/**
+	 * Finds the value of {@code variable} that gives {@code airDensity}. The
+	 * argument of the equation that corresponds to {@code variable} is used as the
+	 * initial guess; {@code Double.NaN} selects a default guess.
+	 *
+	 * @param variable       unknown argument.
+	 * @param airDensity     target air density (kg/m<sup>3</sup>).
+	 * @param airTemperature air temperature in <sup>O</sup>C.
+	 * @param airHumidity    relative humidity (relative humidity reading of "53%"
+	 *                       is expressed as 0.53).
+	 * @param pressure       atmospheric pressure in pascals.
+	 * @return value of the unknown argument.
+	 * @throws IllegalArgumentException if the target is out of reach in the search
+	 *                                  interval of the variable; the message gives
+	 *                                  the achievable range.
+	 */
+	public double solve(Variable variable, double airDensity, double airTemperature, double airHumidity,
+			double pressure) throws IllegalArgumentException {
+		double low = variable.low;
+		double high = variable.high;
+		double x;
+		switch (variable) {
+		case TEMPERATURE:
+			x = airTemperature;
+			break;
+		case HUMIDITY:
+			x = airHumidity;
+			break;
+		default:
+			x = pressure;
+		}
+		if (!(x >= low && x <= high))
+			x = variable.guess;
+
+		double tol = tolerance * Math.abs(airDensity);
+		evaluations = 2;
+		double atLow = density(variable, low, airTemperature, airHumidity, pressure);
+		double atHigh = density(variable, high, airTemperature, airHumidity, pressure);
+		double min = Math.min(atLow, atHigh);
+		double max = Math.max(atLow, atHigh);
+		if (!(airDensity >= min - tol && airDensity <= max + tol))
+			throw new IllegalArgumentException("Air density " + airDensity + " is out of reach for " + variable
+					+ " in [" + variable.low + ", " + variable.high + "], achievable range is [" + min + ", " + max
+					+ "]");
+
+		while (evaluations < MAX_EVALUATIONS) {
+			evaluations++;
+			double derivative;
+			switch (variable) {
+			case TEMPERATURE:
+				this.airDensity.getAirDensityGradient(x, airHumidity, pressure, carbonDioxideFraction, gradient);
+				derivative = gradient.getTemperatureDerivative();
+				break;
+			case HUMIDITY:
+				this.airDensity.getAirDensityGradient(airTemperature, x, pressure, carbonDioxideFraction, gradient);
+				derivative = gradient.getHumidityDerivative();
+				break;
+			default:
+				this.airDensity.getAirDensityGradient(airTemperature, airHumidity, x, carbonDioxideFraction, gradient);
+				derivative = gradient.getPressureDerivative();
+			}
+			double residual = gradient.getAirDensity() - airDensity;
+			if (Math.abs(residual) <= tol)
+				return x;
+
+			// Monotonic function: the root is below x if residual and slope agree
+			if ((residual > 0) == (derivative > 0))
+				high = x;
+			else
+				low = x;
+			if (high - low <= Math.ulp(x))
+				break;
+
+			double next = x - residual / derivative;
+			if (!(next > low && next < high))
+				next = 0.5 * (low + high);
+			x = next;
+		}
+		throw new IllegalArgumentException("Air density " + airDensity + " is out of reach for " + variable
+				+ " in [" + variable.low + ", " + variable.high + "]");
+	}
+
+	/**
+	 * Air density with {@code x} in place of the unknown argument.
+	 */
+	private double density(Variable variable, double x, double airTemperature, double airHumidity,
+			double pressure) {
+		switch (variable) {
+		case TEMPERATURE:
+			return this.airDensity.getAirDensity(x, airHumidity, pressure, carbonDioxideFraction);
+		case HUMIDITY:
+			return this.airDensity.getAirDensity(airTemperature, x, pressure, carbonDioxideFraction);
+		default:
+			return this.airDensity.getAirDensity(airTemperature, airHumidity, x, carbonDioxideFraction);
+		}
+	}
+
+	/**
+	 * Solves a column of targets. Every solution starts from the column value of
+	 * the unknown variable or, when that column is {@code null}, from the previous
+	 * solution.
+	 *
+	 * @param variable       unknown argument.
+	 * @param airDensity     target air densities (kg/m<sup>3</sup>).
+	 * @param airTemperature air temperatures in <sup>O</sup>C, may be {@code null}
+	 *                       for {@link Variable#TEMPERATURE}.
+	 * @param airHumidity    relative humidities, may be {@code null} for
+	 *                       {@link Variable#HUMIDITY}.
+	 * @param pressure       atmospheric pressures in pascals, may be {@code null}
+	 *                       for {@link Variable#PRESSURE}.
+	 * @param result         array receiving the values of the unknown argument.
+	 * @param offset         index of the first target.
+	 * @param length         number of targets.
+	 */
+	public void solve(Variable variable, double[] airDensity, double[] airTemperature, double[] airHumidity,
+			double[] pressure, double[] result, int offset, int length) {
+		double previous = Double.NaN;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			double t = airTemperature == null ? previous : airTemperature[i];
+			double h = airHumidity == null ? previous : airHumidity[i];
+			double p = pressure == null ? previous : pressure[i];
+			previous = solve(variable, airDensity[i], t, h, p);
+			result[i] = previous;
+		}
+	}
+
+	/**
+	 * @return number of equation evaluations spent by the last solution.
+	 */
+	public int getEvaluations() {
+		return evaluations;
+	}
+
+	public double getCarbonDioxideFraction() {
+		return carbonDioxideFraction;
+	}
+
+	/**
+	 * @param carbonDioxideFraction mole fraction of carbon dioxide used for every
+	 *                              solution, 0.0004 by default.
+	 */
+	public void setCarbonDioxideFraction(double carbonDioxideFraction) {
+		this.carbonDioxideFraction = carbonDioxideFraction;
+	}
+
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * @param tolerance relative tolerance of the air density, 1E-12 by default.
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+}
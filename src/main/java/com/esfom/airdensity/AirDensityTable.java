@@ -0,0 +1,279 @@
+package com.esfom.airdensity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class {@code AirDensityTable} serves air density from a precomputed
+ * regular grid over temperature, humidity and pressure. The grid is filled from
+ * any other {@link AirDensity} equation and read back with tricubic (tensor
+ * product of 4-point Lagrange polynomials) interpolation.
+ * <p>
+ * At construction the table is compared with the source equation in the middle
+ * of every grid cell, where the interpolation error is largest, and the maximum
+ * deviation is available from {@link #getMaxRelativeDeviation()}.
+ * <p>
+ * Arguments outside the table envelope and calls with an explicit mole fraction
+ * of carbon dioxide are passed to the source equation.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class AirDensityTable implements AirDensity {
+
+	private static final Logger log = LoggerFactory.getLogger(AirDensityTable.class);
+
+	private final AirDensity source;
+
+	private final double minTemperature;
+	private final double temperatureStep;
+	private final int temperatureNodes;
+
+	private final double minHumidity;
+	private final double humidityStep;
+	private final int humidityNodes;
+
+	private final double minPressure;
+	private final double pressureStep;
+	private final int pressureNodes;
+
+	// values[(i * humidityNodes + j) * pressureNodes + k]
+	private final double[] values;
+
+	private final double maxAbsoluteDeviation;
+	private final double maxRelativeDeviation;
+
+	/**
+	 * Creates the table for {@link AirDensityCIPM2007} over the laboratory
+	 * envelope 15 - 30 <sup>O</sup>C, 20 - 80 %RH and 60 - 110 kPa.
+	 */
+	public AirDensityTable() {
+		this(AirDensityRegistry.getDefault());
+	}
+
+	/**
+	 * Creates the table for the {@code source} equation over the laboratory
+	 * envelope 15 - 30 <sup>O</sup>C, 20 - 80 %RH and 60 - 110 kPa.
+	 *
+	 * @param source
+	 *            equation to tabulate.
+	 */
+	public AirDensityTable(AirDensity source) {
+		this(source, 15, 30, 0.5, 0.2, 0.8, 0.05, 60000, 110000, 2500);
+	}
+
+	/**
+	 * Creates the table for the {@code source} equation. Every step is adjusted
+	 * down so that the nodes cover the range exactly; at least 4 nodes per axis
+	 * are used.
+	 *
+	 * @param source
+	 *            equation to tabulate.
+	 * @param minTemperature
+	 *            lowest air temperature in <sup>O</sup>C.
+	 * @param maxTemperature
+	 *            highest air temperature in <sup>O</sup>C.
+	 * @param temperatureStep
+	 *            largest allowed distance between temperature nodes.
+	 * @param minHumidity
+	 *            lowest relative humidity (relative humidity reading of "53%" is
+	 *            expressed as 0.53).
+	 * @param maxHumidity
+	 *            highest relative humidity.
+	 * @param humidityStep
+	 *            largest allowed distance between humidity nodes.
+	 * @param minPressure
+	 *            lowest atmospheric pressure in pascals.
+	 * @param maxPressure
+	 *            highest atmospheric pressure in pascals.
+	 * @param pressureStep
+	 *            largest allowed distance between pressure nodes.
+	 */
+	public AirDensityTable(AirDensity source, double minTemperature, double maxTemperature, double temperatureStep,
+			double minHumidity, double maxHumidity, double humidityStep, double minPressure, double maxPressure,
+			double pressureStep) {
+		this.source = source;
+
+		this.temperatureNodes = nodes(minTemperature, maxTemperature, temperatureStep);
+		this.minTemperature = minTemperature;
+		this.temperatureStep = (maxTemperature - minTemperature) / (temperatureNodes - 1);
+
+		this.humidityNodes = nodes(minHumidity, maxHumidity, humidityStep);
+		this.minHumidity = minHumidity;
+		this.humidityStep = (maxHumidity - minHumidity) / (humidityNodes - 1);
+
+		this.pressureNodes = nodes(minPressure, maxPressure, pressureStep);
+		this.minPressure = minPressure;
+		this.pressureStep = (maxPressure - minPressure) / (pressureNodes - 1);
+
+		this.values = tabulate(temperatureNodes, humidityNodes, pressureNodes, 0);
+
+		// Check the table in the middle of every cell against the source equation
+		double[] expected = tabulate(temperatureNodes - 1, humidityNodes - 1, pressureNodes - 1, 0.5);
+		double maxAbsolute = 0;
+		double maxRelative = 0;
+		int index = 0;
+		for (int i = 0; i < temperatureNodes - 1; i++) {
+			for (int j = 0; j < humidityNodes - 1; j++) {
+				for (int k = 0; k < pressureNodes - 1; k++) {
+					double rho = interpolate(i + 0.5, j + 0.5, k + 0.5);
+					double deviation = Math.abs(rho - expected[index]);
+					maxAbsolute = Math.max(maxAbsolute, deviation);
+					maxRelative = Math.max(maxRelative, deviation / Math.abs(expected[index]));
+					index++;
+				}
+			}
+		}
+		this.maxAbsoluteDeviation = maxAbsolute;
+		this.maxRelativeDeviation = maxRelative;
+
+		log.info("{} table {}x{}x{}: max deviation {} kg/m3 ({} relative)", source.getEquationName(),
+				temperatureNodes, humidityNodes, pressureNodes, maxAbsolute, maxRelative);
+	}
+
+	private static int nodes(double min, double max, double step) {
+		if (!(max > min) || !(step > 0)) {
+			throw new IllegalArgumentException("Table range [" + min + ", " + max + "] with step " + step
+					+ " is not valid");
+		}
+		return Math.max(4, (int) Math.ceil((max - min) / step - 1E-9) + 1);
+	}
+
+	/**
+	 * Calculates the source equation on a grid of {@code nt x nh x np} points
+	 * shifted by {@code shift} steps from the table minimum.
+	 */
+	private double[] tabulate(int nt, int nh, int np, double shift) {
+		int size = nt * nh * np;
+		double[] t = new double[size];
+		double[] h = new double[size];
+		double[] p = new double[size];
+		int index = 0;
+		for (int i = 0; i < nt; i++) {
+			for (int j = 0; j < nh; j++) {
+				for (int k = 0; k < np; k++) {
+					t[index] = minTemperature + (i + shift) * temperatureStep;
+					h[index] = minHumidity + (j + shift) * humidityStep;
+					p[index] = minPressure + (k + shift) * pressureStep;
+					index++;
+				}
+			}
+		}
+		double[] result = new double[size];
+		source.getAirDensity(t, h, p, result, 0, size);
+		return result;
+	}
+
+	/**
+	 * Tricubic interpolation in grid coordinates (fractional node indexes).
+	 */
+	private double interpolate(double u, double v, double w) {
+		int i = cell(u, temperatureNodes);
+		int j = cell(v, humidityNodes);
+		int k = cell(w, pressureNodes);
+
+		double t0 = weight0(u - i), t1 = weight1(u - i), t2 = weight2(u - i), t3 = weight3(u - i);
+		double h0 = weight0(v - j), h1 = weight1(v - j), h2 = weight2(v - j), h3 = weight3(v - j);
+		double p0 = weight0(w - k), p1 = weight1(w - k), p2 = weight2(w - k), p3 = weight3(w - k);
+
+		int row = ((i - 1) * humidityNodes + j - 1) * pressureNodes + k - 1;
+		int plane = humidityNodes * pressureNodes;
+		return t0 * plane(row, h0, h1, h2, h3, p0, p1, p2, p3)
+				+ t1 * plane(row + plane, h0, h1, h2, h3, p0, p1, p2, p3)
+				+ t2 * plane(row + 2 * plane, h0, h1, h2, h3, p0, p1, p2, p3)
+				+ t3 * plane(row + 3 * plane, h0, h1, h2, h3, p0, p1, p2, p3);
+	}
+
+	private double plane(int row, double h0, double h1, double h2, double h3, double p0, double p1, double p2,
+			double p3) {
+		return h0 * line(row, p0, p1, p2, p3) + h1 * line(row + pressureNodes, p0, p1, p2, p3)
+				+ h2 * line(row + 2 * pressureNodes, p0, p1, p2, p3)
+				+ h3 * line(row + 3 * pressureNodes, p0, p1, p2, p3);
+	}
+
+	private double line(int row, double p0, double p1, double p2, double p3) {
+		return p0 * values[row] + p1 * values[row + 1] + p2 * values[row + 2] + p3 * values[row + 3];
+	}
+
+	/**
+	 * Returns the node index {@code i} so that the stencil {@code i-1 ... i+2}
+	 * lies inside the table and surrounds {@code u} whenever possible.
+	 */
+	private static int cell(double u, int nodes) {
+		int i = (int) u;
+		if (i < 1)
+			return 1;
+		if (i > nodes - 3)
+			return nodes - 3;
+		return i;
+	}
+
+	// Lagrange weights for the nodes -1, 0, 1 and 2
+	private static double weight0(double s) {
+		return -s * (s - 1) * (s - 2) / 6;
+	}
+
+	private static double weight1(double s) {
+		return (s + 1) * (s - 1) * (s - 2) / 2;
+	}
+
+	private static double weight2(double s) {
+		return -(s + 1) * s * (s - 2) / 2;
+	}
+
+	private static double weight3(double s) {
+		return (s + 1) * s * (s - 1) / 6;
+	}
+
+	private boolean contains(double airTemperature, double airHumidity, double pressure) {
+		return airTemperature >= minTemperature
+				&& airTemperature <= minTemperature + (temperatureNodes - 1) * temperatureStep
+				&& airHumidity >= minHumidity && airHumidity <= minHumidity + (humidityNodes - 1) * humidityStep
+				&& pressure >= minPressure && pressure <= minPressure + (pressureNodes - 1) * pressureStep;
+	}
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction) {
+		return source.getAirDensity(airTemperature, airHumidity, pressure, carbonDioxideFraction);
+	}
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure) {
+		if (!contains(airTemperature, airHumidity, pressure)) {
+			return source.getAirDensity(airTemperature, airHumidity, pressure);
+		}
+		return interpolate((airTemperature - minTemperature) / temperatureStep,
+				(airHumidity - minHumidity) / humidityStep, (pressure - minPressure) / pressureStep);
+	}
+
+	@Override
+	public String getEquationName() {
+		return source.getEquationName() + " (table)";
+	}
+
+	/**
+	 * @return equation the table was built from.
+	 */
+	public AirDensity getSource() {
+		return source;
+	}
+
+	/**
+	 * @return maximum absolute deviation from the source equation found at
+	 *         construction (kg/m<sup>3</sup>).
+	 */
+	public double getMaxAbsoluteDeviation() {
+		return maxAbsoluteDeviation;
+	}
+
+	/**
+	 * @return maximum relative deviation from the source equation found at
+	 *         construction.
+	 */
+	public double getMaxRelativeDeviation() {
+		return maxRelativeDeviation;
+	}
+
+}
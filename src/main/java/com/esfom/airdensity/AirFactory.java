@@ -1,23 +1,47 @@
 package com.esfom.airdensity;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 public class AirFactory {
 
-	private static final Logger log = LoggerFactory.getLogger(AirFactory.class);
+	/**
+	 * Returns a standart Air (T=20.0, H=0.50 [50%] , P=101325 Pa [760 mmHg]) using
+	 * the shared instance of the equation class from {@link AirDensityRegistry}.
+	 * 
+	 * @param clazz
+	 *            air density equation class.
+	 * @return standart Air.
+	 * @throws IllegalArgumentException
+	 *             if the equation can not be instantiated.
+	 */
+	public Air getAir(Class<? extends AirDensity> clazz) throws IllegalArgumentException {
+		return getAir(AirDensityRegistry.get(clazz));
+	}
+
+	/**
+	 * Returns a standart Air (T=20.0, H=0.50 [50%] , P=101325 Pa [760 mmHg]) using
+	 * the shared equation from {@link AirDensityRegistry}.
+	 * 
+	 * @param equationName
+	 *            air density equation name, e.g. "CIPM-2007".
+	 * @return standart Air.
+	 * @throws IllegalArgumentException
+	 *             if no equation has the name.
+	 */
+	public Air getAir(String equationName) throws IllegalArgumentException {
+		return getAir(AirDensityRegistry.get(equationName));
+	}
 
-	public Air getAir(Class<? extends AirDensity> clazz) {
+	/**
+	 * Returns a standart Air (T=20.0, H=0.50 [50%] , P=101325 Pa [760 mmHg]) using
+	 * an already created equation, e.g. an {@link AirDensityTable}.
+	 * 
+	 * @param airDensity
+	 *            air density equation.
+	 * @return standart Air.
+	 */
+	public Air getAir(AirDensity airDensity) {
 		Air air = new Air();
-		try {
-			air.setAirDensity(clazz.newInstance());
-			// Create a standart Air (T=20.0, H=0.50 [50%] , P=101325 Pa [760 mmHg])
-			air.set(20.00, 0.50, 101325);
-		} catch (InstantiationException e) {
-			log.error(e.getLocalizedMessage());
-		} catch (IllegalAccessException e) {
-			log.error(e.getLocalizedMessage());
-		}
+		air.setAirDensity(airDensity);
+		air.set(20.00, 0.50, 101325);
 		return air;
 	}
 
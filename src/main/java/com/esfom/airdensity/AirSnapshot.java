@@ -0,0 +1,73 @@
+package com.esfom.airdensity;
+
+/**
+ * The class {@code AirSnapshot} is an immutable state of laboratory air:
+ * temperature, humidity, pressure and the equation, together with the air
+ * density and <i>K</i> calculated once when the snapshot is created.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ * @see ConcurrentAir
+ */
+
+public final class AirSnapshot {
+
+	private final double temperature;
+	private final double humidity;
+	private final double pressure;
+	private final AirDensity airDensity;
+	private final double density;
+	private final double k;
+
+	AirSnapshot(double temperature, double humidity, double pressure, AirDensity airDensity) {
+		this.temperature = temperature;
+		this.humidity = humidity;
+		this.pressure = pressure;
+		this.airDensity = airDensity;
+		this.density = airDensity.getAirDensity(temperature, humidity, pressure);
+		// Same definition as Air.getK() without a second evaluation of the equation
+		this.k = airDensity.getK(density);
+	}
+
+	public double getTemperature() {
+		return temperature;
+	}
+
+	public double getHumidity() {
+		return humidity;
+	}
+
+	public double getPressure() {
+		return pressure;
+	}
+
+	public AirDensity getAirDensityEquation() {
+		return airDensity;
+	}
+
+	/**
+	 * @return air density of the snapshot (kg/m<sup>3</sup>).
+	 */
+	public double getAirDensity() {
+		return density;
+	}
+
+	/**
+	 * @return <i>K</i> of the snapshot as returned by
+	 *         {@link AirDensity#getK(double)} for the snapshot density.
+	 */
+	public double getK() {
+		return k;
+	}
+
+	public Double getApproximateAirDensity() {
+		return airDensity.getApproximateAirDensity(temperature, humidity, pressure);
+	}
+
+	@Override
+	public String toString() {
+		return "AirSnapshot [temperature=" + temperature + ", humidity=" + humidity + ", pressure=" + pressure
+				+ ", equation=" + airDensity.getEquationName() + ", density=" + density + "]";
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.esfom.airdensity;
+
+/**
+ * The class {@code CIPMCoefficients} is the single definition of the constants
+ * of the CIPM equations for the density of moist air. Both the configurable
+ * equations ({@link AirDensityCIPM1981}, {@link AirDensityCIPM1991},
+ * {@link AirDensityCIPM2007}) and their final specialized counterparts take
+ * their constants from here, so the two cannot drift apart.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+final class CIPMCoefficients {
+
+	private CIPMCoefficients() {
+	}
+
+	/**
+	 * The {@code double} value <i>Mv/(kg mol<sup>-1</sup>)</i>, the molar mass of
+	 * water.
+	 */
+	static final double MOLAR_MASS_OF_WATER = 18.0152817E-3;
+
+	/**
+	 * The {@code double} value <i>M<sub>C</sub>/(kg mol<sup>-1</sup>)</i>, the
+	 * molar mass of carbon, used to correct the molar mass of dry air for
+	 * Xco<sub>2</sub>: <i>Ma = [28.96546 + 12.011 (Xco<sub>2</sub> - 0.0004)]
+	 * 10<sup>-3</sup></i> kg mol<sup>-1</sup> in CIPM-2007.
+	 */
+	static final double MOLAR_MASS_OF_CARBON = 12.011E-3;
+
+	/**
+	 * The {@code double} value <i>Xco<sub>2</sub>/(mol mol<sup>-1</sup>)</i>, the
+	 * average mole fraction of carbon dioxide in laboratory air.
+	 */
+	static final double CARBON_DIOXIDE_FRACTION = 0.0004;
+
+	// Constants for the enhancement factor
+	static final double ENHANCEMENT_ALPHA = 1.00062;
+	static final double ENHANCEMENT_BETA = 3.14E-8;
+	static final double ENHANCEMENT_GAMMA = 5.6E-7;
+
+	// Constants for the compressibility factor
+	static final double a0 = 1.58123E-6;
+	static final double a1 = -2.9331E-8;
+	static final double a2 = 1.1043E-10;
+	static final double b0 = 5.707E-6;
+	static final double b1 = -2.051E-8;
+	static final double c0 = 1.9898E-4;
+	static final double c1 = -2.376E-6;
+	static final double d = 1.83E-11;
+	static final double e = -0.765E-8;
+
+	/**
+	 * CIPM-1981.
+	 */
+	static final class CIPM1981 {
+		static final String EQUATION_NAME = "CIPM-1981";
+		static final double MOLAR_GAS_CONSTANT = 8.31441;
+		static final double MOLAR_MASS_OF_DRY_AIR = 28.9634966673E-3;
+		static final double A = 1.2811805E-5;
+		static final double B = -1.9509874E-2;
+		static final double C = 34.04926034;
+		static final double D = -6.3536311E3;
+	}
+
+	/**
+	 * CIPM-1981/91.
+	 */
+	static final class CIPM1991 {
+		static final String EQUATION_NAME = "CIPM-1981/91";
+		static final double MOLAR_GAS_CONSTANT = 8.314510;
+		static final double MOLAR_MASS_OF_DRY_AIR = 28.9635124399E-3;
+		static final double A = 1.2378847E-5;
+		static final double B = -1.9121316E-2;
+		static final double C = 33.93711047;
+		static final double D = -6.3431645E3;
+	}
+
+	/**
+	 * CIPM-2007.
+	 */
+	static final class CIPM2007 {
+		static final String EQUATION_NAME = "CIPM-2007";
+		static final double MOLAR_GAS_CONSTANT = 8.3144721515151515;
+		static final double MOLAR_MASS_OF_DRY_AIR = 28.96546E-3;
+		static final double A = 1.2378847E-5;
+		static final double B = -1.9121316E-2;
+		static final double C = 33.93711047;
+		static final double D = -6.3431645E3;
+	}
+
+}
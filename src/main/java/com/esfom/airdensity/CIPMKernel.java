@@ -0,0 +1,53 @@
+package com.esfom.airdensity;
+
+import static com.esfom.airdensity.CIPMCoefficients.CARBON_DIOXIDE_FRACTION;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_ALPHA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_BETA;
+import static com.esfom.airdensity.CIPMCoefficients.ENHANCEMENT_GAMMA;
+import static com.esfom.airdensity.CIPMCoefficients.MOLAR_MASS_OF_CARBON;
+import static com.esfom.airdensity.CIPMCoefficients.MOLAR_MASS_OF_WATER;
+import static com.esfom.airdensity.CIPMCoefficients.a0;
+import static com.esfom.airdensity.CIPMCoefficients.a1;
+import static com.esfom.airdensity.CIPMCoefficients.a2;
+import static com.esfom.airdensity.CIPMCoefficients.b0;
+import static com.esfom.airdensity.CIPMCoefficients.b1;
+import static com.esfom.airdensity.CIPMCoefficients.c0;
+import static com.esfom.airdensity.CIPMCoefficients.c1;
+import static com.esfom.airdensity.CIPMCoefficients.d;
+import static com.esfom.airdensity.CIPMCoefficients.e;
+
+import com.esfom.munit.Converter;
+
+/**
+ * The class {@code CIPMKernel} is the whole CIPM equation in one static method.
+ * The final equation classes call it with {@code static final} constants from
+ * {@link CIPMCoefficients}; once the JIT inlines the call, every coefficient is
+ * a compile-time constant and is folded into the generated code. The order of
+ * operations is the same as in {@link AirDensityCIPMBase}, so the results are
+ * bit-identical.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+final class CIPMKernel {
+
+	private CIPMKernel() {
+	}
+
+	static double density(double t, double h, double p, double carbonDioxideFraction, double R,
+			double molarMassOfDryAir, double A, double B, double C, double D) {
+		double T = Converter.CelsiusToKelvin(t);
+		double tt = t * t;
+		double TT = T * T;
+		double psv = Math.exp(A * TT + B * T + C + D / T);
+		double f = ENHANCEMENT_ALPHA + ENHANCEMENT_BETA * p + ENHANCEMENT_GAMMA * tt;
+		double Xv = h * (f * psv / p);
+		double XvXv = Xv * Xv;
+		double Z = 1 - p / T * (a0 + a1 * t + a2 * tt + (b0 + b1 * t) * Xv + (c0 + c1 * t) * XvXv)
+				+ p * p / TT * (d + e * XvXv);
+		double Ma = molarMassOfDryAir + MOLAR_MASS_OF_CARBON * (carbonDioxideFraction - CARBON_DIOXIDE_FRACTION);
+		return (p * Ma) / (Z * R * T) * (1 - Xv * (1 - MOLAR_MASS_OF_WATER / Ma));
+	}
+
+}
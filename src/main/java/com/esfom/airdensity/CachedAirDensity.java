@@ -0,0 +1,220 @@
+package com.esfom.airdensity;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@code CachedAirDensity} remembers the results of another
+ * {@link AirDensity} equation for repeated arguments. Sensors report at a fixed
+ * resolution, so the arguments are rounded to a configurable resolution and
+ * the air density is calculated at the rounded point, which makes the cache
+ * transparent: equal rounded arguments always give equal results.
+ * <p>
+ * The rounded temperature, humidity and pressure are packed into one
+ * {@code long} key (21 bits each). The cache is set-associative with 8 entries
+ * per set and CLOCK eviction inside the set; sets are guarded by striped locks,
+ * so the decorator is safe to share between threads. Arguments that do not fit
+ * the key and calls with an explicit mole fraction of carbon dioxide are passed
+ * to the equation uncached.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class CachedAirDensity implements AirDensity {
+
+	private static final int FIELD_BITS = 21;
+	private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+	private static final long FIELD_LIMIT = 1L << (FIELD_BITS - 1);
+	// Packed keys use 63 bits, so this value is never a key
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private static final int WAYS = 8;
+	private static final int STRIPES = 64;
+
+	private final AirDensity airDensity;
+	private final double temperatureResolution;
+	private final double humidityResolution;
+	private final double pressureResolution;
+
+	private final int setMask;
+	private final long[] keys;
+	private final double[] values;
+	private final boolean[] referenced;
+	private final int[] hands;
+	private final Object[] locks;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Caches the equation with resolution 0.01 <sup>O</sup>C, 0.1 %RH and 1 Pa
+	 * and room for 65536 results.
+	 *
+	 * @param airDensity
+	 *            equation to cache.
+	 */
+	public CachedAirDensity(AirDensity airDensity) {
+		this(airDensity, 0.01, 0.001, 1, 1 << 16);
+	}
+
+	/**
+	 * @param airDensity
+	 *            equation to cache.
+	 * @param temperatureResolution
+	 *            temperature resolution in <sup>O</sup>C.
+	 * @param humidityResolution
+	 *            relative humidity resolution (0.1 %RH is expressed as 0.001).
+	 * @param pressureResolution
+	 *            pressure resolution in pascals.
+	 * @param capacity
+	 *            maximum number of cached results, rounded up to a power of two.
+	 */
+	public CachedAirDensity(AirDensity airDensity, double temperatureResolution, double humidityResolution,
+			double pressureResolution, int capacity) {
+		if (!(temperatureResolution > 0 && humidityResolution > 0 && pressureResolution > 0))
+			throw new IllegalArgumentException("Resolution must be positive");
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Capacity " + capacity + " is out of range");
+		this.airDensity = airDensity;
+		this.temperatureResolution = temperatureResolution;
+		this.humidityResolution = humidityResolution;
+		this.pressureResolution = pressureResolution;
+
+		int minSets = (capacity + WAYS - 1) / WAYS;
+		int sets = minSets <= 1 ? 1 : Integer.highestOneBit(minSets - 1) << 1;
+		this.setMask = sets - 1;
+		this.keys = new long[sets * WAYS];
+		this.values = new double[sets * WAYS];
+		this.referenced = new boolean[sets * WAYS];
+		this.hands = new int[sets];
+		this.locks = new Object[Math.min(sets, STRIPES)];
+		for (int i = 0; i < locks.length; i++)
+			locks[i] = new Object();
+		Arrays.fill(keys, EMPTY);
+	}
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure) {
+		long qt = quantize(airTemperature, temperatureResolution);
+		long qh = quantize(airHumidity, humidityResolution);
+		long qp = quantize(pressure, pressureResolution);
+		if (qt == EMPTY || qh == EMPTY || qp == EMPTY) {
+			return airDensity.getAirDensity(airTemperature, airHumidity, pressure);
+		}
+		long key = (qt & FIELD_MASK) << (2 * FIELD_BITS) | (qh & FIELD_MASK) << FIELD_BITS | (qp & FIELD_MASK);
+		int set = hash(key) & setMask;
+		Object lock = locks[set & (locks.length - 1)];
+
+		synchronized (lock) {
+			for (int i = set * WAYS, end = i + WAYS; i < end; i++) {
+				if (keys[i] == key) {
+					referenced[i] = true;
+					hits.increment();
+					return values[i];
+				}
+			}
+		}
+		misses.increment();
+		double value = airDensity.getAirDensity(qt * temperatureResolution, qh * humidityResolution,
+				qp * pressureResolution);
+		synchronized (lock) {
+			int slot = victim(set, key);
+			keys[slot] = key;
+			values[slot] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the slot for the key in the set: the slot already holding the key
+	 * (added by another thread meanwhile), an empty slot or the CLOCK victim.
+	 */
+	private int victim(int set, long key) {
+		int first = set * WAYS;
+		for (int i = first; i < first + WAYS; i++) {
+			if (keys[i] == key || keys[i] == EMPTY)
+				return i;
+		}
+		int hand = hands[set];
+		while (referenced[first + hand]) {
+			referenced[first + hand] = false;
+			hand = (hand + 1) & (WAYS - 1);
+		}
+		hands[set] = (hand + 1) & (WAYS - 1);
+		return first + hand;
+	}
+
+	/**
+	 * Returns the value in resolution units or {@link #EMPTY} if it does not fit
+	 * the key field.
+	 */
+	private static long quantize(double value, double resolution) {
+		double q = Math.rint(value / resolution);
+		if (!(q > -FIELD_LIMIT && q < FIELD_LIMIT))
+			return EMPTY;
+		return (long) q;
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	@Override
+	public double getAirDensity(double airTemperature, double airHumidity, double pressure,
+			double carbonDioxideFraction) {
+		return airDensity.getAirDensity(airTemperature, airHumidity, pressure, carbonDioxideFraction);
+	}
+
+	@Override
+	public String getEquationName() {
+		return airDensity.getEquationName();
+	}
+
+	/**
+	 * Removes every cached result and resets the counters.
+	 */
+	public void clear() {
+		for (int set = 0; set <= setMask; set++) {
+			synchronized (locks[set & (locks.length - 1)]) {
+				Arrays.fill(keys, set * WAYS, set * WAYS + WAYS, EMPTY);
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * @return cached equation.
+	 */
+	public AirDensity getSource() {
+		return airDensity;
+	}
+
+	/**
+	 * @return number of results taken from the cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of results calculated by the equation.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return share of results taken from the cache.
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.esfom.airdensity;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe counterpart of {@link Air}. Every update publishes a new
+ * immutable {@link AirSnapshot} through an {@link AtomicReference}, so readers
+ * never take locks and always see a consistent temperature, humidity, pressure
+ * and equation. The air density and <i>K</i> are calculated once per published
+ * snapshot by the updating thread; reads only return the cached values.
+ * <p>
+ * Readers that need several values from the same state should take a
+ * {@link #snapshot()} once and read everything from it.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class ConcurrentAir {
+
+	private final AtomicReference<AirSnapshot> state;
+
+	/**
+	 * Creates a standart Air (T=20.0, H=0.50 [50%] , P=101325 Pa [760 mmHg]) with
+	 * {@link AirDensityCIPM2007} equation.
+	 */
+	public ConcurrentAir() {
+		this(AirDensityRegistry.getDefault());
+	}
+
+	/**
+	 * Creates a standart Air (T=20.0, H=0.50 [50%] , P=101325 Pa [760 mmHg]).
+	 * 
+	 * @param airDensity air density equation.
+	 */
+	public ConcurrentAir(AirDensity airDensity) {
+		this.state = new AtomicReference<>(new AirSnapshot(20.00, 0.50, 101325, airDensity));
+	}
+
+	/**
+	 * @return current state of the air.
+	 */
+	public AirSnapshot snapshot() {
+		return state.get();
+	}
+
+	public void set(double temperature, double humidity, double pressure) {
+		state.updateAndGet(s -> new AirSnapshot(temperature, humidity, pressure, s.getAirDensityEquation()));
+	}
+
+	public void setAirDensity(AirDensity airDensity) {
+		state.updateAndGet(s -> new AirSnapshot(s.getTemperature(), s.getHumidity(), s.getPressure(), airDensity));
+	}
+
+	public void setTemperature(double temperature) {
+		state.updateAndGet(s -> new AirSnapshot(temperature, s.getHumidity(), s.getPressure(), s.getAirDensityEquation()));
+	}
+
+	public void setHumidity(double humidity) {
+		state.updateAndGet(s -> new AirSnapshot(s.getTemperature(), humidity, s.getPressure(), s.getAirDensityEquation()));
+	}
+
+	public void setPressure(double pressure) {
+		state.updateAndGet(s -> new AirSnapshot(s.getTemperature(), s.getHumidity(), pressure, s.getAirDensityEquation()));
+	}
+
+	public double getAirDensity() {
+		return state.get().getAirDensity();
+	}
+
+	public double getK() {
+		return state.get().getK();
+	}
+
+	public double getTemperature() {
+		return state.get().getTemperature();
+	}
+
+	public double getHumidity() {
+		return state.get().getHumidity();
+	}
+
+	public double getPressure() {
+		return state.get().getPressure();
+	}
+
+	public Double getApproximateAirDensity() {
+		return state.get().getApproximateAirDensity();
+	}
+
+	@Override
+	public String toString() {
+		AirSnapshot s = state.get();
+		return "ConcurrentAir [temperature=" + s.getTemperature() + ", humidity=" + s.getHumidity() + ", pressure="
+				+ s.getPressure() + "]";
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.esfom.airdensity.uncertainty;
+
+import java.util.SplittableRandom;
+
+/**
+ * Probability distribution of an input quantity for the Monte Carlo method of
+ * uncertainty propagation (GUM Supplement 1).
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public interface Distribution {
+
+	/**
+	 * Draws one value of the quantity.
+	 * 
+	 * @param random source of random numbers, owned by the calling thread.
+	 * @return drawn value.
+	 */
+	public double sample(SplittableRandom random);
+
+	/**
+	 * @return expectation of the quantity.
+	 */
+	public double getMean();
+
+	/**
+	 * @return standard uncertainty (standard deviation) of the quantity.
+	 */
+	public double getStandardUncertainty();
+
+	/**
+	 * Returns Gaussian distribution.
+	 * 
+	 * @param mean                estimate of the quantity.
+	 * @param standardUncertainty standard uncertainty of the estimate.
+	 */
+	public static Distribution normal(double mean, double standardUncertainty) {
+		return new NormalDistribution(mean, standardUncertainty);
+	}
+
+	/**
+	 * Returns rectangular (uniform) distribution over
+	 * {@code [mean - halfWidth, mean + halfWidth]}.
+	 * 
+	 * @param mean      estimate of the quantity.
+	 * @param halfWidth half width of the interval.
+	 */
+	public static Distribution rectangular(double mean, double halfWidth) {
+		return new RectangularDistribution(mean, halfWidth);
+	}
+
+	/**
+	 * Returns symmetric triangular distribution over
+	 * {@code [mean - halfWidth, mean + halfWidth]}.
+	 * 
+	 * @param mean      estimate of the quantity.
+	 * @param halfWidth half width of the interval.
+	 */
+	public static Distribution triangular(double mean, double halfWidth) {
+		return new TriangularDistribution(mean, halfWidth);
+	}
+
+	/**
+	 * Returns exactly known quantity.
+	 * 
+	 * @param value value of the quantity.
+	 */
+	public static Distribution constant(double value) {
+		return new RectangularDistribution(value, 0);
+	}
+
+}
@@ -0,0 +1,342 @@
+package com.esfom.airdensity.uncertainty;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.esfom.airdensity.AirDensity;
+
+/**
+ * The class {@code MonteCarloAirDensity} propagates the distributions of air
+ * temperature, humidity, pressure and mole fraction of carbon dioxide through
+ * an {@link AirDensity} equation by the Monte Carlo method (GUM Supplement 1).
+ * <p>
+ * Trials run in parallel on a {@link ForkJoinPool}. The trials are split into
+ * blocks of fixed size and every block gets its own {@link SplittableRandom}
+ * stream from a fixed split tree, so a given seed gives the same result on any
+ * number of cores. The samples are not stored: the mean and variance are
+ * accumulated on the fly and the coverage interval is read from a fine
+ * histogram laid out by a short pilot run.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class MonteCarloAirDensity {
+
+	// Trials calculated sequentially by one task
+	private static final int BLOCK = 1 << 16;
+	// Trials passed to the equation in one batch call
+	private static final int BATCH = 1 << 10;
+	private static final int PILOT_TRIALS = 10000;
+	private static final int BINS = 1 << 14;
+	// Histogram half width in pilot standard deviations
+	private static final double HISTOGRAM_SIGMAS = 12;
+
+	private final AirDensity airDensity;
+
+	private Distribution temperature;
+	private Distribution humidity;
+	private Distribution pressure;
+	private Distribution carbonDioxideFraction;
+	private double equationUncertainty;
+
+	private long trials = 1000000;
+	private long seed = 0;
+	private double coverageProbability = 0.95;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	/**
+	 * @param airDensity equation to propagate the distributions through.
+	 */
+	public MonteCarloAirDensity(AirDensity airDensity) {
+		this.airDensity = airDensity;
+	}
+
+	/**
+	 * Runs the Monte Carlo trials.
+	 * 
+	 * @return estimate, standard uncertainty and coverage interval of the air
+	 *         density (kg/m<sup>3</sup>).
+	 */
+	public MonteCarloResult run() {
+		if (temperature == null || humidity == null || pressure == null)
+			throw new IllegalStateException("Temperature, humidity and pressure distributions must be set");
+
+		SplittableRandom root = new SplittableRandom(seed);
+
+		Accumulator pilot = new Accumulator(0, 0);
+		simulate(pilot, root.split(), Math.min(trials, PILOT_TRIALS));
+		double sigma = Math.sqrt(pilot.m2 / pilot.n);
+		if (!Double.isFinite(pilot.mean) || !Double.isFinite(sigma))
+			throw new IllegalStateException("Pilot run gave a non-finite air density (mean " + pilot.mean
+					+ ", standard deviation " + sigma + "); check the distributions and the equation range");
+		if (sigma == 0)
+			sigma = Math.max(Math.abs(pilot.mean), 1) * 1E-12;
+		double low = pilot.mean - HISTOGRAM_SIGMAS * sigma;
+		double width = 2 * HISTOGRAM_SIGMAS * sigma / BINS;
+
+		Accumulator total = pool.invoke(new Trials(0, trials, root, low, width));
+		if (!Double.isFinite(total.mean))
+			throw new IllegalStateException(
+					"Trials gave a non-finite air density; check the distributions and the equation range");
+
+		double u = trials > 1 ? Math.sqrt(total.m2 / (total.n - 1)) : 0;
+		return new MonteCarloResult(total.n, total.mean, u, coverageProbability,
+				total.quantile((1 - coverageProbability) / 2), total.quantile((1 + coverageProbability) / 2));
+	}
+
+	private void simulate(Accumulator accumulator, SplittableRandom random, long count) {
+		int size = (int) Math.min(count, BATCH);
+		double[] t = new double[size];
+		double[] h = new double[size];
+		double[] p = new double[size];
+		double[] x = carbonDioxideFraction == null ? null : new double[size];
+		double[] rho = new double[size];
+
+		for (long done = 0; done < count; done += size) {
+			int length = (int) Math.min(size, count - done);
+			for (int i = 0; i < length; i++) {
+				t[i] = temperature.sample(random);
+				h[i] = humidity.sample(random);
+				p[i] = pressure.sample(random);
+				if (x != null)
+					x[i] = carbonDioxideFraction.sample(random);
+			}
+			if (x == null)
+				airDensity.getAirDensity(t, h, p, rho, 0, length);
+			else
+				airDensity.getAirDensity(t, h, p, x, rho, 0, length);
+			for (int i = 0; i < length; i++) {
+				double value = rho[i];
+				if (equationUncertainty != 0)
+					value *= 1 + equationUncertainty * NormalDistribution.gaussian(random);
+				accumulator.add(value);
+			}
+		}
+	}
+
+	/**
+	 * Trials {@code [from, to)} with a random stream that belongs to the task.
+	 */
+	private class Trials extends RecursiveTask<Accumulator> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from;
+		private final long to;
+		private final SplittableRandom random;
+		private final double low;
+		private final double width;
+
+		Trials(long from, long to, SplittableRandom random, double low, double width) {
+			this.from = from;
+			this.to = to;
+			this.random = random;
+			this.low = low;
+			this.width = width;
+		}
+
+		@Override
+		protected Accumulator compute() {
+			if (to - from <= BLOCK) {
+				Accumulator accumulator = new Accumulator(low, width);
+				simulate(accumulator, random, to - from);
+				return accumulator;
+			}
+			long blocks = (to - from + BLOCK - 1) / BLOCK;
+			long middle = from + (blocks / 2) * BLOCK;
+			Trials left = new Trials(from, middle, random.split(), low, width);
+			Trials right = new Trials(middle, to, random, low, width);
+			left.fork();
+			Accumulator result = right.compute();
+			return left.join().merge(result);
+		}
+	}
+
+	/**
+	 * Running mean and variance (Welford / Chan) with a histogram for quantiles.
+	 */
+	private static class Accumulator {
+
+		private final double low;
+		private final double width;
+		private final long[] bins;
+		private long below;
+		private long above;
+		private double min = Double.POSITIVE_INFINITY;
+		private double max = Double.NEGATIVE_INFINITY;
+
+		private long n;
+		private double mean;
+		private double m2;
+
+		/**
+		 * @param width bin width, 0 for mean and variance only (no quantiles).
+		 */
+		Accumulator(double low, double width) {
+			this.low = low;
+			this.width = width;
+			this.bins = width > 0 ? new long[BINS] : null;
+		}
+
+		void add(double value) {
+			n++;
+			double delta = value - mean;
+			mean += delta / n;
+			m2 += delta * (value - mean);
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			if (bins != null) {
+				double bin = (value - low) / width;
+				if (bin < 0)
+					below++;
+				else if (bin >= BINS)
+					above++;
+				else
+					bins[(int) bin]++;
+			}
+		}
+
+		Accumulator merge(Accumulator other) {
+			long count = n + other.n;
+			double delta = other.mean - mean;
+			mean += delta * other.n / count;
+			m2 += other.m2 + delta * delta * ((double) n * other.n / count);
+			n = count;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+			below += other.below;
+			above += other.above;
+			if (bins != null && other.bins != null) {
+				for (int i = 0; i < BINS; i++)
+					bins[i] += other.bins[i];
+			}
+			return this;
+		}
+
+		double quantile(double probability) {
+			if (bins == null)
+				throw new IllegalStateException("Accumulator has no histogram");
+			double target = probability * n;
+			double cumulative = below;
+			if (target <= cumulative)
+				return min;
+			for (int i = 0; i < BINS; i++) {
+				if (cumulative + bins[i] >= target)
+					return low + (i + (target - cumulative) / bins[i]) * width;
+				cumulative += bins[i];
+			}
+			return max;
+		}
+	}
+
+	public AirDensity getAirDensity() {
+		return airDensity;
+	}
+
+	public Distribution getTemperature() {
+		return temperature;
+	}
+
+	/**
+	 * @param temperature distribution of air temperature in <sup>O</sup>C.
+	 */
+	public void setTemperature(Distribution temperature) {
+		this.temperature = temperature;
+	}
+
+	public Distribution getHumidity() {
+		return humidity;
+	}
+
+	/**
+	 * @param humidity distribution of relative humidity (relative humidity reading
+	 *                 of "53%" is expressed as 0.53).
+	 */
+	public void setHumidity(Distribution humidity) {
+		this.humidity = humidity;
+	}
+
+	public Distribution getPressure() {
+		return pressure;
+	}
+
+	/**
+	 * @param pressure distribution of atmospheric pressure in pascals.
+	 */
+	public void setPressure(Distribution pressure) {
+		this.pressure = pressure;
+	}
+
+	public Distribution getCarbonDioxideFraction() {
+		return carbonDioxideFraction;
+	}
+
+	/**
+	 * @param carbonDioxideFraction distribution of mole fraction of carbon dioxide
+	 *                              or {@code null} to use the equation average.
+	 */
+	public void setCarbonDioxideFraction(Distribution carbonDioxideFraction) {
+		this.carbonDioxideFraction = carbonDioxideFraction;
+	}
+
+	public double getEquationUncertainty() {
+		return equationUncertainty;
+	}
+
+	/**
+	 * @param equationUncertainty relative standard uncertainty of the equation
+	 *                            itself, e.g. 22E-6 for CIPM-2007. Applied as a
+	 *                            normally distributed factor.
+	 */
+	public void setEquationUncertainty(double equationUncertainty) {
+		this.equationUncertainty = equationUncertainty;
+	}
+
+	public long getTrials() {
+		return trials;
+	}
+
+	/**
+	 * @param trials number of Monte Carlo trials, 10<sup>6</sup> by default.
+	 */
+	public void setTrials(long trials) {
+		if (trials < 1)
+			throw new IllegalArgumentException("Number of trials must be positive");
+		this.trials = trials;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed seed of the random streams; equal seeds give equal results.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public double getCoverageProbability() {
+		return coverageProbability;
+	}
+
+	/**
+	 * @param coverageProbability coverage probability of the interval, 0.95 by
+	 *                            default.
+	 */
+	public void setCoverageProbability(double coverageProbability) {
+		if (!(coverageProbability > 0 && coverageProbability < 1))
+			throw new IllegalArgumentException("Coverage probability must be in (0, 1)");
+		this.coverageProbability = coverageProbability;
+	}
+
+	/**
+	 * @param pool pool to run the trials, {@link ForkJoinPool#commonPool()} by
+	 *             default.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+}
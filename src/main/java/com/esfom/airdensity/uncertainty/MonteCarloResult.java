@@ -0,0 +1,79 @@
+package com.esfom.airdensity.uncertainty;
+
+/**
+ * Summary of a Monte Carlo propagation of distributions: estimate, standard
+ * uncertainty and probabilistically symmetric coverage interval of the output
+ * quantity.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class MonteCarloResult {
+
+	private final long trials;
+	private final double mean;
+	private final double standardUncertainty;
+	private final double coverageProbability;
+	private final double lowCoverageLimit;
+	private final double highCoverageLimit;
+
+	MonteCarloResult(long trials, double mean, double standardUncertainty, double coverageProbability,
+			double lowCoverageLimit, double highCoverageLimit) {
+		this.trials = trials;
+		this.mean = mean;
+		this.standardUncertainty = standardUncertainty;
+		this.coverageProbability = coverageProbability;
+		this.lowCoverageLimit = lowCoverageLimit;
+		this.highCoverageLimit = highCoverageLimit;
+	}
+
+	/**
+	 * @return number of Monte Carlo trials.
+	 */
+	public long getTrials() {
+		return trials;
+	}
+
+	/**
+	 * @return estimate (average of the trials).
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * @return standard uncertainty (standard deviation of the trials).
+	 */
+	public double getStandardUncertainty() {
+		return standardUncertainty;
+	}
+
+	/**
+	 * @return coverage probability of the interval, e.g. 0.95.
+	 */
+	public double getCoverageProbability() {
+		return coverageProbability;
+	}
+
+	/**
+	 * @return lower limit of the probabilistically symmetric coverage interval.
+	 */
+	public double getLowCoverageLimit() {
+		return lowCoverageLimit;
+	}
+
+	/**
+	 * @return upper limit of the probabilistically symmetric coverage interval.
+	 */
+	public double getHighCoverageLimit() {
+		return highCoverageLimit;
+	}
+
+	@Override
+	public String toString() {
+		return "MonteCarloResult [trials=" + trials + ", mean=" + mean + ", standardUncertainty="
+				+ standardUncertainty + ", coverageProbability=" + coverageProbability + ", lowCoverageLimit="
+				+ lowCoverageLimit + ", highCoverageLimit=" + highCoverageLimit + "]";
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.esfom.airdensity.uncertainty;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gaussian distribution <i>N(mean, u<sup>2</sup>)</i>.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class NormalDistribution implements Distribution {
+
+	private final double mean;
+	private final double standardUncertainty;
+
+	public NormalDistribution(double mean, double standardUncertainty) {
+		if (!(standardUncertainty >= 0))
+			throw new IllegalArgumentException("Standard uncertainty must be positive");
+		this.mean = mean;
+		this.standardUncertainty = standardUncertainty;
+	}
+
+	@Override
+	public double sample(SplittableRandom random) {
+		return mean + standardUncertainty * gaussian(random);
+	}
+
+	/**
+	 * Draws a standard normal value with the Marsaglia polar method.
+	 */
+	static double gaussian(SplittableRandom random) {
+		double v1, v2, s;
+		do {
+			v1 = 2 * random.nextDouble() - 1;
+			v2 = 2 * random.nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+		return v1 * Math.sqrt(-2 * Math.log(s) / s);
+	}
+
+	@Override
+	public double getMean() {
+		return mean;
+	}
+
+	@Override
+	public double getStandardUncertainty() {
+		return standardUncertainty;
+	}
+
+	@Override
+	public String toString() {
+		return "NormalDistribution [mean=" + mean + ", standardUncertainty=" + standardUncertainty + "]";
+	}
+
+}
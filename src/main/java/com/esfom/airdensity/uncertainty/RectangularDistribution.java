@@ -0,0 +1,44 @@
+package com.esfom.airdensity.uncertainty;
+
+import java.util.SplittableRandom;
+
+/**
+ * Rectangular (uniform) distribution over
+ * <i>[mean - a, mean + a]</i>, standard uncertainty <i>a/&radic;3</i>.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class RectangularDistribution implements Distribution {
+
+	private final double mean;
+	private final double halfWidth;
+
+	public RectangularDistribution(double mean, double halfWidth) {
+		if (!(halfWidth >= 0))
+			throw new IllegalArgumentException("Half width must be positive");
+		this.mean = mean;
+		this.halfWidth = halfWidth;
+	}
+
+	@Override
+	public double sample(SplittableRandom random) {
+		return mean + halfWidth * (2 * random.nextDouble() - 1);
+	}
+
+	@Override
+	public double getMean() {
+		return mean;
+	}
+
+	@Override
+	public double getStandardUncertainty() {
+		return halfWidth / Math.sqrt(3);
+	}
+
+	@Override
+	public String toString() {
+		return "RectangularDistribution [mean=" + mean + ", halfWidth=" + halfWidth + "]";
+	}
+
+}
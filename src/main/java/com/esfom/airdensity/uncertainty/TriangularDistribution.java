@@ -0,0 +1,45 @@
+package com.esfom.airdensity.uncertainty;
+
+import java.util.SplittableRandom;
+
+/**
+ * Symmetric triangular distribution over <i>[mean - a, mean + a]</i>, standard
+ * uncertainty <i>a/&radic;6</i>.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class TriangularDistribution implements Distribution {
+
+	private final double mean;
+	private final double halfWidth;
+
+	public TriangularDistribution(double mean, double halfWidth) {
+		if (!(halfWidth >= 0))
+			throw new IllegalArgumentException("Half width must be positive");
+		this.mean = mean;
+		this.halfWidth = halfWidth;
+	}
+
+	@Override
+	public double sample(SplittableRandom random) {
+		// The sum of two uniform values has triangular distribution
+		return mean + halfWidth * (random.nextDouble() + random.nextDouble() - 1);
+	}
+
+	@Override
+	public double getMean() {
+		return mean;
+	}
+
+	@Override
+	public double getStandardUncertainty() {
+		return halfWidth / Math.sqrt(6);
+	}
+
+	@Override
+	public String toString() {
+		return "TriangularDistribution [mean=" + mean + ", halfWidth=" + halfWidth + "]";
+	}
+
+}
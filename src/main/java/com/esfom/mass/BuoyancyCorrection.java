@@ -0,0 +1,204 @@
+package com.esfom.mass;
+
+import static com.esfom.math.MathUtils.checkRange;
+
+import com.esfom.airdensity.AirDensity;
+
+/**
+ * The class {@code BuoyancyCorrection} calculates conventional masses of test
+ * weights from weighing cycles, correcting for air buoyancy (OIML R 111-1,
+ * Annex C):
+ * <p>
+ * <i>m<sub>ct</sub> = m<sub>cr</sub> + &Delta;I + m<sub>cr</sub> C</i>,
+ * <i>C = (&rho;<sub>a</sub> - &rho;<sub>0</sub>)(1/&rho;<sub>t</sub> -
+ * 1/&rho;<sub>r</sub>)</i>
+ * <p>
+ * The environment is logged separately from the balance: every reading gets
+ * temperature, humidity and pressure interpolated linearly in time between the
+ * neighbouring environment samples (the first or last sample is used outside
+ * the logged period). Both time columns must be sorted; they are walked
+ * together in one pass, and air densities are calculated in chunks through the
+ * batch method of {@link AirDensity}.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public class BuoyancyCorrection {
+
+	/**
+	 * Conventional air density &rho;<sub>0</sub> = 1.2 kg/m<sup>3</sup>.
+	 */
+	public static final double CONVENTIONAL_AIR_DENSITY = 1.2;
+
+	/**
+	 * Density of the conventional reference weight 8000 kg/m<sup>3</sup>.
+	 */
+	public static final double CONVENTIONAL_DENSITY = 8000;
+
+	// Readings calculated with one batch call
+	private static final int CHUNK = 1024;
+
+	private final AirDensity airDensity;
+
+	/**
+	 * @param airDensity equation for the air density.
+	 */
+	public BuoyancyCorrection(AirDensity airDensity) {
+		this.airDensity = airDensity;
+	}
+
+	/**
+	 * Returns the buoyancy correction factor <i>C</i> for conventional masses.
+	 * 
+	 * @param airDensity       air density during the weighing
+	 *                         (kg/m<sup>3</sup>).
+	 * @param referenceDensity density of the reference weight (kg/m<sup>3</sup>).
+	 * @param testDensity      density of the test weight (kg/m<sup>3</sup>).
+	 * @return <i>(&rho;<sub>a</sub> - &rho;<sub>0</sub>)(1/&rho;<sub>t</sub> -
+	 *         1/&rho;<sub>r</sub>)</i>
+	 */
+	public static double correctionFactor(double airDensity, double referenceDensity, double testDensity) {
+		return (airDensity - CONVENTIONAL_AIR_DENSITY) * (1 / testDensity - 1 / referenceDensity);
+	}
+
+	/**
+	 * Calculates the air density at every reading time from the environment log.
+	 * 
+	 * @param readingTime         times of balance readings, sorted.
+	 * @param environmentTime     times of environment samples, sorted.
+	 * @param temperature         air temperatures in <sup>O</sup>C.
+	 * @param humidity            relative humidities (53% is expressed as 0.53).
+	 * @param pressure            atmospheric pressures in pascals.
+	 * @param result              air densities at {@code readingTime}
+	 *                            (kg/m<sup>3</sup>).
+	 * @param offset              index of the first reading.
+	 * @param length              number of readings.
+	 * @throws IndexOutOfBoundsException if the readings do not fit
+	 *                                   {@code readingTime} or {@code result}.
+	 */
+	public void airDensity(double[] readingTime, double[] environmentTime, double[] temperature, double[] humidity,
+			double[] pressure, double[] result, int offset, int length) throws IndexOutOfBoundsException {
+		checkRange(readingTime.length, offset, length);
+		checkRange(result.length, offset, length);
+		Environment environment = new Environment(environmentTime, temperature, humidity, pressure,
+				Math.min(length, CHUNK));
+		for (int from = offset, end = offset + length; from < end; from += CHUNK) {
+			int size = Math.min(CHUNK, end - from);
+			environment.airDensity(readingTime, from, size);
+			System.arraycopy(environment.rho, 0, result, from, size);
+		}
+	}
+
+	/**
+	 * Calculates conventional masses of test weights from consecutive weighing
+	 * cycles in one pass.
+	 * 
+	 * @param cycle                    weighing cycle.
+	 * @param readingTime              times of balance readings, sorted.
+	 * @param readings                 balance indications, {@code cycles} cycles
+	 *                                 one after another.
+	 * @param environmentTime          times of environment samples, sorted.
+	 * @param temperature              air temperatures in <sup>O</sup>C.
+	 * @param humidity                 relative humidities (53% is expressed as
+	 *                                 0.53).
+	 * @param pressure                 atmospheric pressures in pascals.
+	 * @param referenceConventionalMass conventional mass of the reference weight.
+	 * @param referenceDensity         density of the reference weight
+	 *                                 (kg/m<sup>3</sup>).
+	 * @param testDensity              density of the test weight
+	 *                                 (kg/m<sup>3</sup>).
+	 * @param testConventionalMass     conventional masses of the test weight, one
+	 *                                 per cycle.
+	 * @param cycleAirDensity          mean air densities of the cycles or
+	 *                                 {@code null}.
+	 * @param cycles                   number of cycles.
+	 */
+	public void conventionalMass(WeighingCycle cycle, double[] readingTime, double[] readings,
+			double[] environmentTime, double[] temperature, double[] humidity, double[] pressure,
+			double referenceConventionalMass, double referenceDensity, double testDensity,
+			double[] testConventionalMass, double[] cycleAirDensity, int cycles) {
+		int perCycle = cycle.getReadings();
+		if ((long) cycles * perCycle > Math.min(readings.length, readingTime.length))
+			throw new IllegalArgumentException(cycles + " " + cycle + " cycles need " + (long) cycles * perCycle
+					+ " readings");
+		int cyclesPerChunk = Math.max(1, CHUNK / perCycle);
+		Environment environment = new Environment(environmentTime, temperature, humidity, pressure,
+				Math.min(cycles, cyclesPerChunk) * perCycle);
+
+		for (int first = 0; first < cycles; first += cyclesPerChunk) {
+			int count = Math.min(cyclesPerChunk, cycles - first);
+			environment.airDensity(readingTime, first * perCycle, count * perCycle);
+			for (int c = 0; c < count; c++) {
+				double rho = 0;
+				for (int i = c * perCycle; i < (c + 1) * perCycle; i++) {
+					rho += environment.rho[i];
+				}
+				rho /= perCycle;
+				double deltaI = cycle.indicationDifference(readings, (first + c) * perCycle);
+				testConventionalMass[first + c] = referenceConventionalMass + deltaI
+						+ referenceConventionalMass * correctionFactor(rho, referenceDensity, testDensity);
+				if (cycleAirDensity != null)
+					cycleAirDensity[first + c] = rho;
+			}
+		}
+	}
+
+	/**
+	 * Environment log with a cursor that moves forward as reading times grow, and
+	 * buffers for one chunk of readings.
+	 */
+	private class Environment {
+
+		private final double[] time;
+		private final double[] temperature;
+		private final double[] humidity;
+		private final double[] pressure;
+		private int cursor;
+
+		private final double[] t;
+		private final double[] h;
+		private final double[] p;
+		private final double[] rho;
+
+		Environment(double[] time, double[] temperature, double[] humidity, double[] pressure, int chunk) {
+			if (time.length == 0 || temperature.length < time.length || humidity.length < time.length
+					|| pressure.length < time.length)
+				throw new IllegalArgumentException("Environment columns must have the same, non zero length");
+			this.time = time;
+			this.temperature = temperature;
+			this.humidity = humidity;
+			this.pressure = pressure;
+			this.t = new double[chunk];
+			this.h = new double[chunk];
+			this.p = new double[chunk];
+			this.rho = new double[chunk];
+		}
+
+		/**
+		 * Fills the chunk buffers for readings {@code [from, from + size)}.
+		 */
+		void airDensity(double[] readingTime, int from, int size) {
+			int last = time.length - 1;
+			for (int i = 0; i < size; i++) {
+				double x = readingTime[from + i];
+				while (cursor < last && time[cursor + 1] <= x)
+					cursor++;
+				while (cursor > 0 && time[cursor] > x)
+					cursor--;
+				if (x <= time[cursor] || cursor == last) {
+					t[i] = temperature[cursor];
+					h[i] = humidity[cursor];
+					p[i] = pressure[cursor];
+				} else {
+					double w = (x - time[cursor]) / (time[cursor + 1] - time[cursor]);
+					t[i] = temperature[cursor] + w * (temperature[cursor + 1] - temperature[cursor]);
+					h[i] = humidity[cursor] + w * (humidity[cursor + 1] - humidity[cursor]);
+					p[i] = pressure[cursor] + w * (pressure[cursor + 1] - pressure[cursor]);
+				}
+			}
+			BuoyancyCorrection.this.airDensity.getAirDensity(t, h, p, rho, 0, size);
+		}
+	}
+
+}
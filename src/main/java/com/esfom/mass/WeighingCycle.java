@@ -0,0 +1,54 @@
+package com.esfom.mass;
+
+/**
+ * Weighing cycles for comparison of a test weight <i>B</i> with a reference
+ * weight <i>A</i> (OIML R 111-1, Annex C). Readings of a cycle are stored in
+ * consecutive array elements in the order of the cycle name.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+
+public enum WeighingCycle {
+
+	/**
+	 * A B B A: &Delta;I = (I<sub>B1</sub> - I<sub>A1</sub> - I<sub>A2</sub> +
+	 * I<sub>B2</sub>) / 2
+	 */
+	ABBA(-0.5, 0.5, 0.5, -0.5),
+
+	/**
+	 * A B A: &Delta;I = I<sub>B</sub> - (I<sub>A1</sub> + I<sub>A2</sub>) / 2
+	 */
+	ABA(-0.5, 1, -0.5);
+
+	private final double[] weights;
+
+	private WeighingCycle(double... weights) {
+		this.weights = weights;
+	}
+
+	/**
+	 * @return number of readings in one cycle.
+	 */
+	public int getReadings() {
+		return weights.length;
+	}
+
+	/**
+	 * Returns the indication difference &Delta;I of the cycle starting at
+	 * {@code offset}.
+	 * 
+	 * @param readings balance indications.
+	 * @param offset   index of the first reading of the cycle.
+	 * @return indication difference between test and reference weights.
+	 */
+	public double indicationDifference(double[] readings, int offset) {
+		double result = 0;
+		for (int i = 0; i < weights.length; i++) {
+			result += weights[i] * readings[offset + i];
+		}
+		return result;
+	}
+
+}
@@ -12,6 +12,11 @@ import org.slf4j.LoggerFactory;
  * Combinations - C<br>
  * and Accomodations - A<br>
  * WITH and WITHOUT repeats
+ * <p>
+ * Results that fit in a {@code long} are calculated with primitive arithmetic
+ * and promoted to {@link BigInteger} only on overflow; the {@code ...Exact}
+ * variants return the {@code long} directly and throw
+ * {@link ArithmeticException} if the result does not fit.
  * 
  * @author firsov.k.n@gmail.com
  * @since 2022
@@ -21,6 +26,24 @@ public class Combinatorics {
 	
 	private static Logger log = LoggerFactory.getLogger(Combinatorics.class);
 
+	/**
+	 * Result of the long fast paths when the result does not fit in a long; every
+	 * result of the fast paths is non-negative otherwise.
+	 */
+	private static final long OVERFLOW = -1;
+
+	/**
+	 * n! for n = 0 ... 20, 20! is the largest factorial that fits in a long.
+	 */
+	private static final long[] LONG_FACTORIALS = new long[21];
+
+	static {
+		LONG_FACTORIALS[0] = 1;
+		for (int i = 1; i < LONG_FACTORIALS.length; i++) {
+			LONG_FACTORIALS[i] = LONG_FACTORIALS[i - 1] * i;
+		}
+	}
+
 	/**
 	 * P(n) = n!
 	 * 
@@ -31,6 +54,17 @@ public class Combinatorics {
 		return factorial(n);
 	}
 
+	/**
+	 * P(n) = n!
+	 * 
+	 * @param n - set
+	 * @return possible permutations in n set
+	 * @throws ArithmeticException if the result does not fit in a long
+	 */
+	public static long permutationsNoRepeatsExact(int n) throws IllegalArgumentException, ArithmeticException {
+		return factorialExact(n);
+	}
+
 	/**
 	 * P_(n1,n2...nk) = n!/(n1!*n2!*...*nk!)
 	 * 
@@ -40,8 +74,44 @@ public class Combinatorics {
 	 * @throws IllegalArgumentException
 	 */
 	public static BigInteger permutationsWithRepeats(int n, List<Integer> ns) throws IllegalArgumentException {
+		return permutationsWithRepeats(n, toArray(ns));
+	}
+
+	/**
+	 * P_(n1,n2...nk) = n!/(n1!*n2!*...*nk!)
+	 * <p>
+	 * When the repeats add up to at most n the result is built from its prime
+	 * factorization by {@link Factorials#multinomial(int, int...)} without
+	 * calculating n!.
+	 * 
+	 * @param n  - set
+	 * @param ns - repeats {n1,n2...nk}
+	 * @return
+	 * @throws IllegalArgumentException
+	 */
+	public static BigInteger permutationsWithRepeats(int n, int[] ns) throws IllegalArgumentException {
+		long sum = 0;
+		boolean valid = n >= 0;
+		for (int ni : ns) {
+			valid &= ni >= 0;
+			sum += ni;
+		}
+		if (valid && sum <= n) {
+			if (n < LONG_FACTORIALS.length) {
+				long denom = 1;
+				for (int ni : ns) {
+					denom *= LONG_FACTORIALS[ni];
+				}
+				return BigInteger.valueOf(LONG_FACTORIALS[n] / denom);
+			}
+			return Factorials.multinomial(n, ns);
+		}
+		// Negative arguments throw here, repeats over n keep the integer division
 		BigInteger nom = factorial(n);
-		BigInteger denom = ns.stream().map(e -> factorial(e)).reduce(BigInteger.ONE, BigInteger::multiply);
+		BigInteger denom = BigInteger.ONE;
+		for (int ni : ns) {
+			denom = denom.multiply(factorial(ni));
+		}
 		return nom.divide(denom);
 	}
 
@@ -54,10 +124,34 @@ public class Combinatorics {
 	 * @return
 	 */
 	public static BigInteger permutationsWithRepeats(List<Integer> ns) throws IllegalArgumentException {
-		int n = ns.stream().reduce(0, Integer::sum);
+		return permutationsWithRepeats(toArray(ns));
+	}
+
+	/**
+	 * Simpliest version of P_ P_(n1,n2...nk) = n!/(n1!*n2!*...*nk!)
+	 * 
+	 * parameter <b>n</b> is sum of ni
+	 * 
+	 * @param ns - repeats {n1,n2...nk}
+	 * @return
+	 */
+	public static BigInteger permutationsWithRepeats(int[] ns) throws IllegalArgumentException {
+		int n = 0;
+		for (int ni : ns) {
+			n += ni;
+		}
 		return permutationsWithRepeats(n, ns);
 	}
 
+	private static int[] toArray(List<Integer> ns) {
+		int[] array = new int[ns.size()];
+		int i = 0;
+		for (Integer ni : ns) {
+			array[i++] = ni;
+		}
+		return array;
+	}
+
 	/**
 	 * A_(n,k) = n^k
 	 * 
@@ -66,9 +160,39 @@ public class Combinatorics {
 	 * @return possible placements WITH repeats [n^k]
 	 */
 	public static BigInteger accomodationsWithRepeats(int n, int k) throws IllegalArgumentException {
+		if (k < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		if (n >= 0) {
+			long result = powerLong(n, k);
+			if (result != OVERFLOW)
+				return BigInteger.valueOf(result);
+		}
 		return BigInteger.valueOf(n).pow(k);
 	}
 
+	/**
+	 * A_(n,k) = n^k
+	 * 
+	 * @param n - set
+	 * @param k - subset
+	 * @return possible placements WITH repeats [n^k]
+	 * @throws ArithmeticException if the result does not fit in a long
+	 */
+	public static long accomodationsWithRepeatsExact(int n, int k) throws IllegalArgumentException, ArithmeticException {
+		if (k < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		long magnitude = Math.abs((long) n);
+		long result = powerLong(magnitude, k);
+		boolean negative = n < 0 && (k & 1) == 1;
+		if (result == OVERFLOW) {
+			// (-2^m)^k = Long.MIN_VALUE fits only as a negative number
+			if (negative && Long.bitCount(magnitude) == 1 && Long.numberOfTrailingZeros(magnitude) * (long) k == 63)
+				return Long.MIN_VALUE;
+			throw overflow();
+		}
+		return negative ? -result : result;
+	}
+
 	/**
 	 * A(n,k) = P(n)/(n - k)! = n!/(n-k)!
 	 * 
@@ -78,10 +202,33 @@ public class Combinatorics {
 	 */
 	public static BigInteger accomodationsNoRepeats(int n, int k) throws IllegalArgumentException {
 		argumentsCheck(n, k);
+		if (k == 0)
+			return BigInteger.ONE;
 		int from = n - k + 1;
+		long result = rangeMultiplyLong(from, n);
+		if (result != OVERFLOW)
+			return BigInteger.valueOf(result);
 		return rangeMultiply(from, n);
 	}
 
+	/**
+	 * A(n,k) = P(n)/(n - k)! = n!/(n-k)!
+	 * 
+	 * @param n - set
+	 * @param k - subset
+	 * @return possible placements WITHOUT repeats [n!/(n-k)!]
+	 * @throws ArithmeticException if the result does not fit in a long
+	 */
+	public static long accomodationsNoRepeatsExact(int n, int k) throws IllegalArgumentException, ArithmeticException {
+		argumentsCheck(n, k);
+		if (k == 0)
+			return 1;
+		long result = rangeMultiplyLong(n - k + 1, n);
+		if (result == OVERFLOW)
+			throw overflow();
+		return result;
+	}
+
 	/**
 	 * C(n,k) = A(n,k) / k! = n!/(k!*(n-k)!)
 	 * 
@@ -91,8 +238,11 @@ public class Combinatorics {
 	 */
 	public static BigInteger combinationsNoRepeats(int n, int k) throws IllegalArgumentException {
 		argumentsCheck(n, k);
-		if (n == k)
+		if (n == k || k == 0)
 			return BigInteger.ONE;
+		long result = binomialLong(n, k);
+		if (result != OVERFLOW)
+			return BigInteger.valueOf(result);
 		int delta = n - k;
 		int from;
 		int denominator;
@@ -107,6 +257,24 @@ public class Combinatorics {
 		return rangeMultiply(from, n).divide(factorial(denominator));
 	}
 
+	/**
+	 * C(n,k) = A(n,k) / k! = n!/(k!*(n-k)!)
+	 * 
+	 * @param n -set
+	 * @param k - subset
+	 * @return possible combinations WITHOUT repeats
+	 * @throws ArithmeticException if the result does not fit in a long
+	 */
+	public static long combinationsNoRepeatsExact(int n, int k) throws IllegalArgumentException, ArithmeticException {
+		argumentsCheck(n, k);
+		if (n == k || k == 0)
+			return 1;
+		long result = binomialLong(n, k);
+		if (result == OVERFLOW)
+			throw overflow();
+		return result;
+	}
+
 	/**
 	 * C_(n,k) = (n+k-1)!/(k!*(n-1)!)
 	 * 
@@ -116,6 +284,11 @@ public class Combinatorics {
 	 */
 	public static BigInteger combinationsWithRepeats(int n, int k) throws IllegalArgumentException {
 		argumentsCheck(n, k);
+		if (k == 0 || n == 1)
+			return BigInteger.ONE;
+		long result = binomialLong((long) n + k - 1, k);
+		if (result != OVERFLOW)
+			return BigInteger.valueOf(result);
 		int numerator = n + k - 1;
 		int delta = n - 1;
 		int from;
@@ -124,29 +297,57 @@ public class Combinatorics {
 			from = k + 1;
 			denominator = delta;
 		} else {
-			from = n - k + 1;
+			from = n;
 			denominator = k;
 
 		}
 		return rangeMultiply(from, numerator).divide(factorial(denominator));
 	}
 
+	/**
+	 * C_(n,k) = (n+k-1)!/(k!*(n-1)!)
+	 * 
+	 * @param n -set
+	 * @param k - subset
+	 * @return possible combinations WITH repeats
+	 * @throws ArithmeticException if the result does not fit in a long
+	 */
+	public static long combinationsWithRepeatsExact(int n, int k) throws IllegalArgumentException, ArithmeticException {
+		argumentsCheck(n, k);
+		if (k == 0 || n == 1)
+			return 1;
+		long result = binomialLong((long) n + k - 1, k);
+		if (result == OVERFLOW)
+			throw overflow();
+		return result;
+	}
+
 	/**
 	 * Math factorial
 	 * 
 	 * @param n - factorial of number n
 	 * @return n!
+	 * @see Factorials#factorial(int)
 	 */
 	public static BigInteger factorial(int n) throws IllegalArgumentException {
-		BigInteger result = BigInteger.ONE;
+		if (n >= 0 && n < LONG_FACTORIALS.length)
+			return BigInteger.valueOf(LONG_FACTORIALS[n]);
+		return Factorials.factorial(n);
+	}
+
+	/**
+	 * Math factorial
+	 * 
+	 * @param n - factorial of number n
+	 * @return n!
+	 * @throws ArithmeticException if the result does not fit in a long (n > 20)
+	 */
+	public static long factorialExact(int n) throws IllegalArgumentException, ArithmeticException {
 		if (n < 0)
 			throw new IllegalArgumentException("Number must be positive");
-		if (n == 0)
-			return result;
-		for (int i = 1; i <= n; i++) {
-			result = result.multiply(BigInteger.valueOf(i));
-		}
-		return result;
+		if (n >= LONG_FACTORIALS.length)
+			throw overflow();
+		return LONG_FACTORIALS[n];
 	}
 
 	/**
@@ -154,24 +355,109 @@ public class Combinatorics {
 	 * @param from
 	 * @param to
 	 * @return from * (from+1) * (from + 2)...*to
+	 * @see Factorials#product(long, long)
 	 */
 	private static BigInteger rangeMultiply(int from, int to) {
 		if (from > to)
 			throw new IllegalArgumentException("[from > to] : from must be greater or equal to");
-		if (from == 0 || to == 0)
-			return BigInteger.ZERO;
-		if (from == to)
-			return BigInteger.valueOf(from);
-		BigInteger result = BigInteger.valueOf(from);
-		for (int i = from + 1; i <= to; i++) {
-			result = result.multiply(BigInteger.valueOf(i));
+		return Factorials.product(from, to);
+	}
+
+	/**
+	 * from * (from+1) * (from + 2)...*to for 0 < from <= to
+	 * 
+	 * @return product or {@link #OVERFLOW}
+	 */
+	private static long rangeMultiplyLong(long from, long to) {
+		long result = from;
+		for (long i = from + 1; i <= to && result != OVERFLOW; i++) {
+			result = multiplyLong(result, i);
 		}
 		return result;
 	}
 
+	/**
+	 * base^exponent for non-negative arguments, by squaring
+	 * 
+	 * @return power or {@link #OVERFLOW}
+	 */
+	private static long powerLong(long base, int exponent) {
+		long result = 1;
+		while (true) {
+			if ((exponent & 1) == 1) {
+				result = multiplyLong(result, base);
+				if (result == OVERFLOW)
+					return OVERFLOW;
+			}
+			exponent >>>= 1;
+			if (exponent == 0)
+				return result;
+			base = multiplyLong(base, base);
+			if (base == OVERFLOW)
+				return OVERFLOW;
+		}
+	}
+
+	/**
+	 * Multiplicative formula C(n,k) = prod (n-k+i)/i, i = 1...k for 0 < k <= n.
+	 * Every partial product is the binomial coefficient C(n-k+i, i), so it is an
+	 * integer and never larger than the result. When the partial product times
+	 * (n-k+i) would overflow, the common factor of the partial product and i is
+	 * cancelled before multiplying, so the division stays exact.
+	 * 
+	 * @return binomial coefficient or {@link #OVERFLOW}
+	 */
+	private static long binomialLong(long n, long k) {
+		k = Math.min(k, n - k);
+		long result = 1;
+		for (long i = 1; i <= k; i++) {
+			long factor = n - k + i;
+			long product = multiplyLong(result, factor);
+			if (product != OVERFLOW) {
+				result = product / i;
+				continue;
+			}
+			long g = gcd(result, i);
+			result = multiplyLong(result / g, factor / (i / g));
+			if (result == OVERFLOW)
+				return OVERFLOW;
+		}
+		return result;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	/**
+	 * a * b for non-negative arguments
+	 * 
+	 * @return product or {@link #OVERFLOW}
+	 */
+	private static long multiplyLong(long a, long b) {
+		if (((a | b) >>> 31) == 0 || b == 0 || a <= Long.MAX_VALUE / b)
+			return a * b;
+		return OVERFLOW;
+	}
+
+	private static ArithmeticException overflow() {
+		return new ArithmeticException("long overflow");
+	}
+
+	/**
+	 * 0 &lt;= k &lt;= n, checked before any shortcut so that every formula
+	 * rejects the same arguments
+	 */
 	private static void argumentsCheck(int n, int k) throws IllegalArgumentException {
 		if (k > n)
 			throw new IllegalArgumentException("[k > n] : n must be greater or equal k");
+		if (k < 0)
+			throw new IllegalArgumentException("Number must be positive");
 	}
 
 	/**
@@ -256,4 +542,37 @@ public class Combinatorics {
 		throw new IllegalArgumentException("Have NO formula for this arguments set.");
 	}
 
+	/**
+	 * {@link #smartCalc(int, Integer, boolean, boolean) smartCalc} without
+	 * {@link BigInteger}
+	 * 
+	 * @param n       - set
+	 * @param k       - subset. NULL if absent
+	 * @param order   - true if order is important
+	 * @param repeats - true if repeats available (WITH repeats)
+	 * @return result based on the most appropriate formula
+	 * @throws IllegalArgumentException
+	 * @throws ArithmeticException      if the result does not fit in a long
+	 */
+	public static long smartCalcExact(int n, Integer k, boolean order, boolean repeats)
+			throws IllegalArgumentException, ArithmeticException {
+		if (order && repeats && k != null) {
+			log.trace("Calc with accomodationsWithRepeats");
+			return accomodationsWithRepeatsExact(n, k);
+		} else if (order && !repeats && k != null) {
+			log.trace("Calc with accomodationsNoRepeats");
+			return accomodationsNoRepeatsExact(n, k);
+		} else if (order && (k == null || n == k)) {
+			log.trace("Calc with permutationsNoRepeats");
+			return permutationsNoRepeatsExact(n);
+		} else if (!order && !repeats && k != null) {
+			log.trace("Calc with combinationsNoRepeats");
+			return combinationsNoRepeatsExact(n, k);
+		} else if (!order && repeats && k != null) {
+			log.trace("Calc with combinationsWithRepeats");
+			return combinationsWithRepeatsExact(n, k);
+		}
+		throw new IllegalArgumentException("Have NO formula for this arguments set.");
+	}
+
 }
@@ -0,0 +1,314 @@
+package com.esfom.math;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in memoization of factorials and binomial coefficients for workloads that
+ * call {@link Combinatorics} many times with overlapping arguments.
+ * <p>
+ * The cache keeps three kinds of entries under one memory budget with least
+ * recently used eviction:
+ * <ul>
+ * <li>factorials; a missing n! is calculated from the largest cached m! below
+ * it as m! * (m+1) * ... * n instead of from 1,</li>
+ * <li>Pascal triangle rows up to a configurable row number, so every C(n, k)
+ * of a cached row is a lookup,</li>
+ * <li>binomial coefficients of larger n, calculated as n!/(n-k)! / k! with the
+ * cached k!.</li>
+ * </ul>
+ * Results that fit in a {@code long} (n &lt;= 20 for factorials, n &lt;= 66
+ * for binomials) are answered by {@link Combinatorics} directly and are not
+ * cached. The cache is thread-safe; results are calculated outside the lock,
+ * so two threads missing the same entry may both calculate it.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public class CombinatoricsCache {
+
+	private static final int LONG_FACTORIAL_LIMIT = 20;
+	private static final int LONG_BINOMIAL_LIMIT = 66;
+
+	// Approximate heap size of a BigInteger and of an array without payload
+	private static final long BIG_INTEGER_OVERHEAD = 56;
+	private static final long ARRAY_OVERHEAD = 16;
+
+	private final long maxBytes;
+	private final int maxRow;
+
+	/**
+	 * Keys: -1 - n for n!, n << 32 for row n, n << 32 | k for C(n, k).
+	 */
+	private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+	private final TreeMap<Integer, BigInteger> factorials = new TreeMap<>();
+	private long usedBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private static final class Entry {
+		private final Object value;
+		private final long bytes;
+
+		Entry(Object value, long bytes) {
+			this.value = value;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * Cache of 64 MB with Pascal rows up to n = 1000
+	 */
+	public CombinatoricsCache() {
+		this(64L << 20, 1000);
+	}
+
+	/**
+	 * @param maxBytes - memory budget in bytes, approximate
+	 * @param maxRow   - largest n kept as a whole Pascal triangle row, 0 to cache
+	 *                 single binomial coefficients only
+	 * @throws IllegalArgumentException if an argument is negative
+	 */
+	public CombinatoricsCache(long maxBytes, int maxRow) throws IllegalArgumentException {
+		if (maxBytes < 0 || maxRow < 0)
+			throw new IllegalArgumentException("Memory budget and row limit must be positive");
+		this.maxBytes = maxBytes;
+		this.maxRow = maxRow;
+	}
+
+	/**
+	 * Math factorial
+	 *
+	 * @param n - factorial of number n
+	 * @return n!
+	 * @see Combinatorics#factorial(int)
+	 */
+	public BigInteger factorial(int n) throws IllegalArgumentException {
+		if (n <= LONG_FACTORIAL_LIMIT)
+			return Combinatorics.factorial(n);
+		long key = -1L - n;
+		int from;
+		BigInteger start;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				hits.increment();
+				return (BigInteger) entry.value;
+			}
+			Map.Entry<Integer, BigInteger> floor = factorials.floorEntry(n);
+			if (floor != null) {
+				// Touch the base so that it stays while it is useful
+				entries.get(-1L - floor.getKey());
+				from = floor.getKey() + 1;
+				start = floor.getValue();
+			} else {
+				from = LONG_FACTORIAL_LIMIT + 1;
+				start = Combinatorics.factorial(LONG_FACTORIAL_LIMIT);
+			}
+		}
+		misses.increment();
+		BigInteger result = start.multiply(Factorials.product(from, n));
+		synchronized (this) {
+			if (put(key, result, bytes(result)))
+				factorials.put(n, result);
+		}
+		return result;
+	}
+
+	/**
+	 * C(n,k) = n!/(k!*(n-k)!)
+	 *
+	 * @param n -set
+	 * @param k - subset
+	 * @return possible combinations WITHOUT repeats
+	 * @see Combinatorics#combinationsNoRepeats(int, int)
+	 */
+	public BigInteger combinationsNoRepeats(int n, int k) throws IllegalArgumentException {
+		if (k < 0 || k > n || n <= LONG_BINOMIAL_LIMIT)
+			return Combinatorics.combinationsNoRepeats(n, k);
+		k = Math.min(k, n - k);
+		if (k == 0)
+			return BigInteger.ONE;
+		if (n <= maxRow)
+			return row(n)[k];
+
+		long key = (long) n << 32 | k;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				hits.increment();
+				return (BigInteger) entry.value;
+			}
+		}
+		misses.increment();
+		BigInteger result = Factorials.product(n - k + 1, n).divide(factorial(k));
+		synchronized (this) {
+			put(key, result, bytes(result));
+		}
+		return result;
+	}
+
+	/**
+	 * C_(n,k) = (n+k-1)!/(k!*(n-1)!)
+	 *
+	 * @param n -set
+	 * @param k - subset
+	 * @return possible combinations WITH repeats
+	 * @see Combinatorics#combinationsWithRepeats(int, int)
+	 */
+	public BigInteger combinationsWithRepeats(int n, int k) throws IllegalArgumentException {
+		if (k < 0 || k > n || n + k - 1 <= LONG_BINOMIAL_LIMIT || n + k - 1 < 0)
+			return Combinatorics.combinationsWithRepeats(n, k);
+		return combinationsNoRepeats(n + k - 1, k);
+	}
+
+	/**
+	 * P_(n1,n2...nk) = n!/(n1!*n2!*...*nk!) with cached factorials
+	 *
+	 * @param n  - set
+	 * @param ns - list of repeats {n1,n2...nk}
+	 * @return possible permutations WITH repeats
+	 * @see Combinatorics#permutationsWithRepeats(int, List)
+	 */
+	public BigInteger permutationsWithRepeats(int n, List<Integer> ns) throws IllegalArgumentException {
+		BigInteger denominator = BigInteger.ONE;
+		for (Integer ni : ns) {
+			denominator = denominator.multiply(factorial(ni));
+		}
+		return factorial(n).divide(denominator);
+	}
+
+	/**
+	 * P_(n1,n2...nk) with n as sum of list's ni
+	 *
+	 * @param ns - list of repeats {n1,n2...nk}
+	 * @return possible permutations WITH repeats
+	 * @see Combinatorics#permutationsWithRepeats(List)
+	 */
+	public BigInteger permutationsWithRepeats(List<Integer> ns) throws IllegalArgumentException {
+		int n = 0;
+		for (Integer ni : ns) {
+			n += ni;
+		}
+		return permutationsWithRepeats(n, ns);
+	}
+
+	/**
+	 * Returns the first half C(n, 0) ... C(n, n/2) of Pascal row n.
+	 */
+	private BigInteger[] row(int n) {
+		long key = (long) n << 32;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				hits.increment();
+				return (BigInteger[]) entry.value;
+			}
+		}
+		misses.increment();
+		BigInteger[] row = new BigInteger[n / 2 + 1];
+		row[0] = BigInteger.ONE;
+		long bytes = ARRAY_OVERHEAD + 8L * row.length + bytes(row[0]);
+		for (int k = 1; k < row.length; k++) {
+			row[k] = row[k - 1].multiply(BigInteger.valueOf(n - k + 1)).divide(BigInteger.valueOf(k));
+			bytes += bytes(row[k]);
+		}
+		synchronized (this) {
+			put(key, row, bytes);
+		}
+		return row;
+	}
+
+	/**
+	 * Adds the entry and evicts the least recently used entries over the budget;
+	 * must hold the lock.
+	 *
+	 * @return {@code true} if the entry was added
+	 */
+	private boolean put(long key, Object value, long bytes) {
+		if (bytes > maxBytes)
+			return false;
+		Entry old = entries.put(key, new Entry(value, bytes));
+		if (old != null)
+			usedBytes -= old.bytes;
+		usedBytes += bytes;
+		Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+		while (usedBytes > maxBytes && eldest.hasNext()) {
+			Map.Entry<Long, Entry> e = eldest.next();
+			if (e.getKey() == key)
+				continue;
+			eldest.remove();
+			usedBytes -= e.getValue().bytes;
+			if (e.getKey() < 0)
+				factorials.remove((int) (-1L - e.getKey()));
+		}
+		return true;
+	}
+
+	private static long bytes(BigInteger value) {
+		return BIG_INTEGER_OVERHEAD + ((value.bitLength() + 31) >>> 5) * 4L;
+	}
+
+	/**
+	 * Removes every cached result and resets the counters.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		factorials.clear();
+		usedBytes = 0;
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * @return number of results taken from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of results calculated and added to the cache
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return share of cacheable results taken from the cache
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	/**
+	 * @return approximate memory held by the cached results in bytes
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * @return memory budget in bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return number of cached entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+}
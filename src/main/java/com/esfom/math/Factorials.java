@@ -0,0 +1,316 @@
+package com.esfom.math;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Factorials and products of consecutive integers by a balanced product tree.
+ * <p>
+ * Multiplying a growing {@link BigInteger} by one small number at a time costs
+ * time quadratic in the bit length of the result. The product tree multiplies
+ * numbers of similar size instead, so {@link BigInteger#multiply(BigInteger)}
+ * works on balanced operands and its Karatsuba / Toom-Cook algorithms apply.
+ * The leaves of the tree pack as many consecutive factors as fit into one
+ * {@code long}. Ranges of more than 8192 factors are split into independent
+ * subtrees that run on the {@link ForkJoinPool#commonPool()}.
+ * <p>
+ * Multinomial coefficients are built from their prime factorization instead:
+ * the exponent of every prime is found by Legendre's formula and the prime
+ * powers are multiplied by the same kind of product tree, so no intermediate
+ * is larger than the result.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public final class Factorials {
+
+	/**
+	 * Factors per leaf of the product tree.
+	 */
+	private static final int LEAF = 32;
+
+	/**
+	 * Number of factors above which subtrees are computed in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	private Factorials() {
+	}
+
+	/**
+	 * Math factorial
+	 *
+	 * @param n - factorial of number n
+	 * @return n!
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public static BigInteger factorial(int n) throws IllegalArgumentException {
+		if (n < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		return n < 2 ? BigInteger.ONE : product(2, n);
+	}
+
+	/**
+	 * Falling factorial n * (n - 1) * ... * (n - k + 1) = n!/(n-k)!
+	 *
+	 * @param n - set
+	 * @param k - number of factors
+	 * @return n!/(n-k)!, 1 for k = 0
+	 * @throws IllegalArgumentException if k is negative
+	 */
+	public static BigInteger fallingFactorial(int n, int k) throws IllegalArgumentException {
+		if (k < 0)
+			throw new IllegalArgumentException("Number of factors must be positive");
+		return k == 0 ? BigInteger.ONE : product((long) n - k + 1, n);
+	}
+
+	/**
+	 * Product of consecutive integers
+	 *
+	 * @param from - first factor
+	 * @param to   - last factor
+	 * @return from * (from + 1) * ... * to, 1 for the empty range to = from - 1
+	 * @throws IllegalArgumentException if from > to + 1
+	 */
+	public static BigInteger product(long from, long to) throws IllegalArgumentException {
+		if (from > to) {
+			// from - 1 cannot overflow here, to + 1 could
+			if (from - 1 != to)
+				throw new IllegalArgumentException("[from > to] : range from " + from + " to " + to + " is not valid");
+			return BigInteger.ONE;
+		}
+		if (from <= 0 && to >= 0)
+			return BigInteger.ZERO;
+		if (to - from < PARALLEL_THRESHOLD)
+			return multiply(from, to);
+		return ForkJoinPool.commonPool().invoke(new Product(from, to));
+	}
+
+	/**
+	 * Multinomial coefficient n!/(k1!*k2!*...*km!) from the prime factorization
+	 * of the result. The primes up to n are sieved and the exponent of every
+	 * prime p is e(n) - e(k1) - ... - e(km) with Legendre's formula e(n) =
+	 * [n/p] + [n/p<sup>2</sup>] + ...; the prime powers are multiplied by a
+	 * product tree, in parallel for more than 8192 primes, and the power of two
+	 * is applied as a shift.
+	 *
+	 * @param n  - set
+	 * @param ks - repeats {k1,k2...km} with k1 + k2 + ... + km &lt;= n
+	 * @return n!/(k1!*k2!*...*km!)
+	 * @throws IllegalArgumentException if an argument is negative or the repeats
+	 *                                  add up to more than n
+	 */
+	public static BigInteger multinomial(int n, int... ks) throws IllegalArgumentException {
+		if (n < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		long sum = 0;
+		for (int k : ks) {
+			if (k < 0)
+				throw new IllegalArgumentException("Number must be positive");
+			sum += k;
+		}
+		if (sum > n)
+			throw new IllegalArgumentException("[sum > n] : repeats add up to " + sum + ", more than " + n);
+
+		int[] primes = primes(n);
+		BigInteger odd;
+		if (primes.length - 1 < PARALLEL_THRESHOLD)
+			odd = multiplyPowers(primes, 1, primes.length, n, ks);
+		else
+			odd = ForkJoinPool.commonPool().invoke(new PrimePowers(primes, 1, primes.length, n, ks));
+		return primes.length == 0 ? odd : odd.shiftLeft(exponent(2, n, ks));
+	}
+
+	/**
+	 * Exponent of the prime p in n!/(k1!*k2!*...*km!).
+	 */
+	private static int exponent(int p, int n, int[] ks) {
+		int e = legendre(p, n);
+		for (int k : ks) {
+			e -= legendre(p, k);
+		}
+		return e;
+	}
+
+	/**
+	 * Legendre's formula: exponent of the prime p in n!
+	 */
+	private static int legendre(int p, int n) {
+		int e = 0;
+		while (n >= p) {
+			n /= p;
+			e += n;
+		}
+		return e;
+	}
+
+	/**
+	 * Primes up to n by the sieve of Eratosthenes over odd numbers.
+	 */
+	static int[] primes(int n) {
+		if (n < 2)
+			return new int[0];
+		// bit i stands for the odd number 2i + 1
+		int odds = (n - 1) / 2 + 1;
+		long[] composite = new long[(odds + 63) >>> 6];
+		for (long p = 3; p * p <= n; p += 2) {
+			if ((composite[(int) (p >>> 7)] & 1L << (p >>> 1)) != 0)
+				continue;
+			for (long m = p * p; m <= n; m += 2 * p) {
+				composite[(int) (m >>> 7)] |= 1L << (m >>> 1);
+			}
+		}
+		int count = 1;
+		for (int i = 1; i < odds; i++) {
+			if ((composite[i >>> 6] & 1L << i) == 0)
+				count++;
+		}
+		int[] primes = new int[count];
+		primes[0] = 2;
+		int j = 1;
+		for (int i = 1; i < odds; i++) {
+			if ((composite[i >>> 6] & 1L << i) == 0)
+				primes[j++] = 2 * i + 1;
+		}
+		return primes;
+	}
+
+	/**
+	 * Sequential product tree of the prime powers {@code primes[from, to)}.
+	 */
+	private static BigInteger multiplyPowers(int[] primes, int from, int to, int n, int[] ks) {
+		if (to - from <= LEAF)
+			return leafPowers(primes, from, to, n, ks);
+		int middle = (from + to) >>> 1;
+		return multiplyPowers(primes, from, middle, n, ks).multiply(multiplyPowers(primes, middle, to, n, ks));
+	}
+
+	/**
+	 * Product of a few prime powers: powers are collected in a {@code long} while
+	 * the result fits in 62 bits.
+	 */
+	private static BigInteger leafPowers(int[] primes, int from, int to, int n, int[] ks) {
+		BigInteger result = BigInteger.ONE;
+		long accumulator = 1;
+		int bits = 1;
+		for (int i = from; i < to; i++) {
+			int p = primes[i];
+			int e = exponent(p, n, ks);
+			if (e == 0)
+				continue;
+			int primeBits = 32 - Integer.numberOfLeadingZeros(p);
+			if ((long) primeBits * e > 62) {
+				result = result.multiply(BigInteger.valueOf(p).pow(e));
+				continue;
+			}
+			long power = p;
+			for (int j = 1; j < e; j++) {
+				power *= p;
+			}
+			int powerBits = 64 - Long.numberOfLeadingZeros(power);
+			if (bits + powerBits > 62) {
+				result = result.multiply(BigInteger.valueOf(accumulator));
+				accumulator = 1;
+			}
+			accumulator *= power;
+			bits = 64 - Long.numberOfLeadingZeros(accumulator);
+		}
+		return accumulator == 1 ? result : result.multiply(BigInteger.valueOf(accumulator));
+	}
+
+	/**
+	 * Subtree {@code primes[from, to)} of a parallel multinomial.
+	 */
+	private static class PrimePowers extends RecursiveTask<BigInteger> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] primes;
+		private final int from;
+		private final int to;
+		private final int n;
+		private final int[] ks;
+
+		PrimePowers(int[] primes, int from, int to, int n, int[] ks) {
+			this.primes = primes;
+			this.from = from;
+			this.to = to;
+			this.n = n;
+			this.ks = ks;
+		}
+
+		@Override
+		protected BigInteger compute() {
+			if (to - from < PARALLEL_THRESHOLD)
+				return multiplyPowers(primes, from, to, n, ks);
+			int middle = (from + to) >>> 1;
+			PrimePowers left = new PrimePowers(primes, from, middle, n, ks);
+			left.fork();
+			BigInteger right = new PrimePowers(primes, middle, to, n, ks).compute();
+			return left.join().multiply(right);
+		}
+	}
+
+	/**
+	 * Sequential product tree of {@code [from, to]}.
+	 */
+	private static BigInteger multiply(long from, long to) {
+		if (to - from < LEAF)
+			return leaf(from, to);
+		long middle = from + (to - from) / 2;
+		return multiply(from, middle).multiply(multiply(middle + 1, to));
+	}
+
+	/**
+	 * Product of a short range: factors are collected in a {@code long} while the
+	 * result fits in 62 bits.
+	 */
+	private static BigInteger leaf(long from, long to) {
+		BigInteger result = null;
+		long accumulator = 1;
+		int bits = 1;
+		// i <= to would never end for to = Long.MAX_VALUE
+		for (long i = from, count = to - from; count >= 0; i++, count--) {
+			int factorBits = 64 - Long.numberOfLeadingZeros(Math.abs(i));
+			if (bits + factorBits > 62) {
+				result = result == null ? BigInteger.valueOf(accumulator)
+						: result.multiply(BigInteger.valueOf(accumulator));
+				accumulator = 1;
+				bits = 1;
+			}
+			accumulator *= i;
+			bits = 64 - Long.numberOfLeadingZeros(Math.abs(accumulator));
+		}
+		return result == null ? BigInteger.valueOf(accumulator) : result.multiply(BigInteger.valueOf(accumulator));
+	}
+
+	/**
+	 * Subtree {@code [from, to]} of a parallel product.
+	 */
+	private static class Product extends RecursiveTask<BigInteger> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from;
+		private final long to;
+
+		Product(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected BigInteger compute() {
+			if (to - from < PARALLEL_THRESHOLD)
+				return multiply(from, to);
+			long middle = from + (to - from) / 2;
+			Product left = new Product(from, middle);
+			left.fork();
+			BigInteger right = new Product(middle + 1, to).compute();
+			return left.join().multiply(right);
+		}
+	}
+
+}
@@ -0,0 +1,344 @@
+package com.esfom.math;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bilinear / trilinear interpolation table over a regular or
+ * rectilinear grid.
+ * <p>
+ * Every {@link Axis} is either regular (first node, step and number of nodes,
+ * the cell is found by division) or rectilinear (explicit nodes, the cell is
+ * found by binary search); the axes of one grid may be mixed. The values are
+ * kept in one flat array in row-major order, the last axis varies fastest:
+ * {@code values[i * strideX + j * strideY + k]} with precomputed strides.
+ * <p>
+ * Outside the grid the end cell of every axis is extended linearly, the same
+ * way as {@link InterpolationTable} extends the end segment. At the nodes the
+ * table returns the grid values exactly.
+ * <p>
+ * Instances have no mutable state and may be shared between threads.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public final class GridTable {
+
+	/**
+	 * Nodes of one grid dimension.
+	 */
+	public static final class Axis {
+
+		private final double first;
+		private final double step;
+		private final int size;
+		// null for a regular axis
+		private final double[] nodes;
+
+		private Axis(double first, double step, int size, double[] nodes) {
+			this.first = first;
+			this.step = step;
+			this.size = size;
+			this.nodes = nodes;
+		}
+
+		/**
+		 * Regular axis: {@code first, first + step, ... first + (size - 1) * step}
+		 *
+		 * @param first - first node
+		 * @param step  - positive distance between the nodes
+		 * @param size  - number of nodes, at least two
+		 * @return axis
+		 * @throws IllegalArgumentException if the step is not positive or there are
+		 *                                  less than two nodes
+		 */
+		public static Axis regular(double first, double step, int size) throws IllegalArgumentException {
+			if (!(step > 0) || Double.isInfinite(step) || Double.isNaN(first) || Double.isInfinite(first))
+				throw new IllegalArgumentException("Axis from " + first + " with step " + step + " is not valid");
+			if (size < 2)
+				throw new IllegalArgumentException("Axis must have at least two nodes");
+			return new Axis(first, step, size, null);
+		}
+
+		/**
+		 * Rectilinear axis with arbitrary node spacing
+		 *
+		 * @param nodes - strictly increasing nodes, at least two
+		 * @return axis
+		 * @throws IllegalArgumentException if there are less than two nodes or the
+		 *                                  nodes are not strictly increasing
+		 */
+		public static Axis rectilinear(double... nodes) throws IllegalArgumentException {
+			if (nodes.length < 2)
+				throw new IllegalArgumentException("Axis must have at least two nodes");
+			for (int i = 1; i < nodes.length; i++) {
+				if (!(nodes[i] > nodes[i - 1]))
+					throw new IllegalArgumentException(
+							"Nodes must be strictly increasing: " + nodes[i - 1] + " and " + nodes[i] + " at " + i);
+			}
+			return new Axis(nodes[0], Double.NaN, nodes.length, nodes.clone());
+		}
+
+		/**
+		 * @return number of nodes
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @param i - index of the node
+		 * @return node {@code i}
+		 */
+		public double getNode(int i) {
+			if (i < 0 || i >= size)
+				throw new IndexOutOfBoundsException("Node " + i + " is out of axis size " + size);
+			return nodes == null ? first + i * step : nodes[i];
+		}
+
+		/**
+		 * @return {@code true} for a regular axis
+		 */
+		public boolean isRegular() {
+			return nodes == null;
+		}
+
+		/**
+		 * Returns the cell {@code i} in {@code [0, size - 2]} for {@code x}: the cell
+		 * containing {@code x} or the end cell outside the axis.
+		 */
+		int cell(double x) {
+			if (nodes == null) {
+				double u = (x - first) / step;
+				if (!(u >= 1))
+					return 0;
+				if (u >= size - 2)
+					return size - 2;
+				return (int) u;
+			}
+			int low = 0;
+			int high = size - 1;
+			while (high - low > 1) {
+				int middle = (low + high) >>> 1;
+				if (x < nodes[middle])
+					high = middle;
+				else
+					low = middle;
+			}
+			return low;
+		}
+
+		/**
+		 * Returns the position of {@code x} in the cell {@code i}: 0 at node
+		 * {@code i}, 1 at node {@code i + 1}, beyond [0, 1] outside the axis.
+		 */
+		double fraction(int i, double x) {
+			if (nodes == null)
+				return (x - first) / step - i;
+			return (x - nodes[i]) / (nodes[i + 1] - nodes[i]);
+		}
+
+		@Override
+		public String toString() {
+			return nodes == null ? "Axis [first=" + first + ", step=" + step + ", size=" + size + "]"
+					: "Axis [nodes=" + Arrays.toString(nodes) + "]";
+		}
+	}
+
+	private final Axis[] axes;
+	private final double[] values;
+	private final int strideX;
+	private final int strideY;
+
+	/**
+	 * Bilinear table, {@code values[i * y.size() + j]} is the value at
+	 * {@code (x[i], y[j])}
+	 *
+	 * @param x      - first axis
+	 * @param y      - second axis
+	 * @param values - grid values, the last axis varies fastest
+	 * @throws IllegalArgumentException if the number of values does not match the
+	 *                                  axes
+	 */
+	public GridTable(Axis x, Axis y, double[] values) throws IllegalArgumentException {
+		this(new Axis[] { x, y }, values);
+	}
+
+	/**
+	 * Trilinear table, {@code values[(i * y.size() + j) * z.size() + k]} is the
+	 * value at {@code (x[i], y[j], z[k])}
+	 *
+	 * @param x      - first axis
+	 * @param y      - second axis
+	 * @param z      - third axis
+	 * @param values - grid values, the last axis varies fastest
+	 * @throws IllegalArgumentException if the number of values does not match the
+	 *                                  axes
+	 */
+	public GridTable(Axis x, Axis y, Axis z, double[] values) throws IllegalArgumentException {
+		this(new Axis[] { x, y, z }, values);
+	}
+
+	private GridTable(Axis[] axes, double[] values) {
+		long size = 1;
+		for (Axis axis : axes) {
+			size *= axis.size;
+		}
+		if (size != values.length)
+			throw new IllegalArgumentException(
+					"Grid of " + size + " nodes does not match " + values.length + " values");
+		this.axes = axes;
+		this.values = values.clone();
+		if (axes.length == 2) {
+			this.strideX = axes[1].size;
+			this.strideY = 1;
+		} else {
+			this.strideX = axes[1].size * axes[2].size;
+			this.strideY = axes[2].size;
+		}
+	}
+
+	/**
+	 * Bilinear interpolation
+	 *
+	 * @param x - coordinate on the first axis
+	 * @param y - coordinate on the second axis
+	 * @return interpolated value
+	 * @throws IllegalStateException if the table is not two-dimensional
+	 */
+	public double interpolate(double x, double y) throws IllegalStateException {
+		checkDimensions(2);
+		Axis ax = axes[0], ay = axes[1];
+		int i = ax.cell(x);
+		int j = ay.cell(y);
+		return bilinear(i * strideX + j, ax.fraction(i, x), ay.fraction(j, y));
+	}
+
+	/**
+	 * Trilinear interpolation
+	 *
+	 * @param x - coordinate on the first axis
+	 * @param y - coordinate on the second axis
+	 * @param z - coordinate on the third axis
+	 * @return interpolated value
+	 * @throws IllegalStateException if the table is not three-dimensional
+	 */
+	public double interpolate(double x, double y, double z) throws IllegalStateException {
+		checkDimensions(3);
+		Axis ax = axes[0], ay = axes[1], az = axes[2];
+		int i = ax.cell(x);
+		int j = ay.cell(y);
+		int k = az.cell(z);
+		return trilinear(i * strideX + j * strideY + k, ax.fraction(i, x), ay.fraction(j, y), az.fraction(k, z));
+	}
+
+	/**
+	 * Bilinear interpolation of the points
+	 * {@code (x[offset], y[offset]) ... (x[offset + length - 1], y[offset + length - 1])}
+	 * into the same elements of {@code result}
+	 *
+	 * @param x      - coordinates on the first axis
+	 * @param y      - coordinates on the second axis
+	 * @param result - array receiving the interpolated values
+	 * @param offset - index of the first point
+	 * @param length - number of points
+	 * @throws IllegalStateException     if the table is not two-dimensional
+	 * @throws IndexOutOfBoundsException if the range does not fit the arrays
+	 */
+	public void interpolate(double[] x, double[] y, double[] result, int offset, int length)
+			throws IllegalStateException, IndexOutOfBoundsException {
+		checkDimensions(2);
+		MathUtils.checkRange(x.length, offset, length);
+		MathUtils.checkRange(y.length, offset, length);
+		MathUtils.checkRange(result.length, offset, length);
+		Axis ax = axes[0], ay = axes[1];
+		for (int n = offset, end = offset + length; n < end; n++) {
+			double xn = x[n], yn = y[n];
+			int i = ax.cell(xn);
+			int j = ay.cell(yn);
+			result[n] = bilinear(i * strideX + j, ax.fraction(i, xn), ay.fraction(j, yn));
+		}
+	}
+
+	/**
+	 * Trilinear interpolation of the points {@code (x[n], y[n], z[n])},
+	 * {@code n = offset ... offset + length - 1} into the same elements of
+	 * {@code result}
+	 *
+	 * @param x      - coordinates on the first axis
+	 * @param y      - coordinates on the second axis
+	 * @param z      - coordinates on the third axis
+	 * @param result - array receiving the interpolated values
+	 * @param offset - index of the first point
+	 * @param length - number of points
+	 * @throws IllegalStateException     if the table is not three-dimensional
+	 * @throws IndexOutOfBoundsException if the range does not fit the arrays
+	 */
+	public void interpolate(double[] x, double[] y, double[] z, double[] result, int offset, int length)
+			throws IllegalStateException, IndexOutOfBoundsException {
+		checkDimensions(3);
+		MathUtils.checkRange(x.length, offset, length);
+		MathUtils.checkRange(y.length, offset, length);
+		MathUtils.checkRange(z.length, offset, length);
+		MathUtils.checkRange(result.length, offset, length);
+		Axis ax = axes[0], ay = axes[1], az = axes[2];
+		for (int n = offset, end = offset + length; n < end; n++) {
+			double xn = x[n], yn = y[n], zn = z[n];
+			int i = ax.cell(xn);
+			int j = ay.cell(yn);
+			int k = az.cell(zn);
+			result[n] = trilinear(i * strideX + j * strideY + k, ax.fraction(i, xn), ay.fraction(j, yn),
+					az.fraction(k, zn));
+		}
+	}
+
+	private double bilinear(int corner, double u, double v) {
+		double v0 = lerp(values[corner], values[corner + 1], v);
+		double v1 = lerp(values[corner + strideX], values[corner + strideX + 1], v);
+		return lerp(v0, v1, u);
+	}
+
+	private double trilinear(int corner, double u, double v, double w) {
+		int c = corner;
+		double v00 = lerp(values[c], values[c + 1], w);
+		double v01 = lerp(values[c + strideY], values[c + strideY + 1], w);
+		c += strideX;
+		double v10 = lerp(values[c], values[c + 1], w);
+		double v11 = lerp(values[c + strideY], values[c + strideY + 1], w);
+		return lerp(lerp(v00, v01, v), lerp(v10, v11, v), u);
+	}
+
+	/**
+	 * Linear interpolation between {@code a} at 0 and {@code b} at 1, exact at
+	 * both ends.
+	 */
+	private static double lerp(double a, double b, double u) {
+		return u == 1 ? b : a + u * (b - a);
+	}
+
+	private void checkDimensions(int dimensions) {
+		if (axes.length != dimensions)
+			throw new IllegalStateException("Grid has " + axes.length + " dimensions, not " + dimensions);
+	}
+
+	/**
+	 * @return number of dimensions, 2 or 3
+	 */
+	public int getDimensions() {
+		return axes.length;
+	}
+
+	/**
+	 * @param dimension - index of the axis, from 0
+	 * @return axis of the dimension
+	 */
+	public Axis getAxis(int dimension) {
+		return axes[dimension];
+	}
+
+	@Override
+	public String toString() {
+		return "GridTable [axes=" + Arrays.toString(axes) + "]";
+	}
+
+}
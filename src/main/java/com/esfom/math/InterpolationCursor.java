@@ -0,0 +1,110 @@
+package com.esfom.math;
+
+/**
+ * Stateful lookup over an {@link InterpolationTable} for streams of nearby
+ * queries, such as replayed sensor readings.
+ * <p>
+ * The cursor remembers the segment of the previous query. The next query
+ * first checks that segment, then gallops away from it with steps 1, 2, 4 ...
+ * segments until the query is bracketed and finishes with a binary search
+ * inside the bracket. A query in the same or a neighbouring segment costs one
+ * or two comparisons, a jump of {@code d} segments costs O(log d), so a
+ * stream of nearby queries is amortised O(1) per lookup. The results are
+ * equal to {@link InterpolationTable#interpolate(double)}.
+ * <p>
+ * A cursor is not thread-safe; use one cursor per thread, the table itself
+ * may be shared.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public final class InterpolationCursor {
+
+	private final InterpolationTable table;
+	private final double[] keys;
+	private int segment;
+
+	InterpolationCursor(InterpolationTable table, double[] keys) {
+		this.table = table;
+		this.keys = keys;
+	}
+
+	/**
+	 * Interpolate y of x, starting the search from the previous segment
+	 *
+	 * @param x
+	 * @return y of x, extrapolated by the end segment outside the keys
+	 */
+	public double interpolate(double x) {
+		// Outside the keys, at the last key and NaN need no segment
+		if (!(x >= keys[0] && x < keys[keys.length - 1]))
+			return table.interpolate(x);
+		int i = segment;
+		if (x < keys[i])
+			i = searchLeft(x, i);
+		else if (x >= keys[i + 1])
+			i = searchRight(x, i + 1);
+		segment = i;
+		return table.value(i, x);
+	}
+
+	/**
+	 * Gallops right from key {@code low <= x}; {@code x} is below the last key.
+	 */
+	private int searchRight(double x, int low) {
+		int last = keys.length - 1;
+		int step = 1;
+		int high = Math.min(low + step, last);
+		while (keys[high] <= x) {
+			low = high;
+			step <<= 1;
+			high = Math.min(low + step, last);
+		}
+		return binarySearch(x, low, high);
+	}
+
+	/**
+	 * Gallops left from key {@code high > x}; {@code x} is not below the first
+	 * key.
+	 */
+	private int searchLeft(double x, int high) {
+		int step = 1;
+		int low = Math.max(high - step, 0);
+		while (keys[low] > x) {
+			high = low;
+			step <<= 1;
+			low = Math.max(high - step, 0);
+		}
+		return binarySearch(x, low, high);
+	}
+
+	/**
+	 * Segment in the bracket {@code keys[low] <= x < keys[high]}.
+	 */
+	private int binarySearch(double x, int low, int high) {
+		while (high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if (x < keys[middle])
+				high = middle;
+			else
+				low = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Forgets the previous segment, the next search starts from the first one.
+	 */
+	public void reset() {
+		segment = 0;
+	}
+
+	/**
+	 * @return table of the cursor
+	 */
+	public InterpolationTable getTable() {
+		return table;
+	}
+
+}
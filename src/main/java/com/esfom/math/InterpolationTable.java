@@ -0,0 +1,474 @@
+package com.esfom.math;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Immutable piecewise polynomial interpolation table.
+ * <p>
+ * The table is built once from a {@link TreeMap} or from parallel arrays of
+ * keys and values. Every segment {@code [keys[i], keys[i + 1]]} gets the cubic
+ * <i>y = values[i] + b s + c s<sup>2</sup> + d s<sup>3</sup></i>, <i>s = x -
+ * keys[i]</i>, with the coefficients kept in primitive arrays, so a lookup is
+ * a binary search without allocation and a Horner evaluation. The coefficients
+ * depend on the {@link Mode}; in the default {@link Mode#LINEAR} mode
+ * <i>b</i> is the slope of the segment and <i>c = d = 0</i>.
+ * <p>
+ * Outside the key range the table continues along the tangent at the first or
+ * the last key. For {@link Mode#LINEAR} this is the end segment extended, the
+ * same way as {@link MathUtils#interpolate(double, TreeMap)} does, and the
+ * results are equal to that method.
+ * <p>
+ * Batch lookups walk the table in a single merge pass when the queries are
+ * sorted and split large inputs over the {@link ForkJoinPool#commonPool()}.
+ * Streams of nearby queries are served by an {@link InterpolationCursor} from
+ * {@link #cursor()}.
+ * <p>
+ * Instances have no mutable state and may be shared between threads.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public final class InterpolationTable {
+
+	/**
+	 * Interpolation between the keys.
+	 */
+	public enum Mode {
+		/**
+		 * Straight line between neighbouring points.
+		 */
+		LINEAR,
+		/**
+		 * Natural cubic spline: continuous first and second derivatives, zero second
+		 * derivative at the first and the last key.
+		 */
+		CUBIC,
+		/**
+		 * Monotone cubic Hermite spline (Fritsch - Carlson): keeps monotone data
+		 * monotone and does not overshoot the points.
+		 */
+		MONOTONE,
+		/**
+		 * Akima spline: the derivative at a key is weighted from the neighbouring
+		 * slopes, so an outlier only bends the curve locally.
+		 */
+		AKIMA
+	}
+
+	/**
+	 * Batch length above which the queries are split between fork-join tasks.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+	private final Mode mode;
+	private final double[] keys;
+	private final double[] values;
+	// Polynomial coefficients of the segments
+	private final double[] b;
+	private final double[] c;
+	private final double[] d;
+	// Derivative at the last key
+	private final double endSlope;
+
+	/**
+	 * Linear interpolation table
+	 *
+	 * @param map - points of the table, at least two
+	 * @throws IllegalArgumentException if the map has less than two points or a
+	 *                                  key is not a number
+	 */
+	public InterpolationTable(TreeMap<Double, Double> map) throws IllegalArgumentException {
+		this(Mode.LINEAR, keys(map), values(map));
+	}
+
+	/**
+	 * @param map  - points of the table, at least two
+	 * @param mode - interpolation between the keys
+	 * @throws IllegalArgumentException if the map has less than two points or a
+	 *                                  key is not a number
+	 */
+	public InterpolationTable(TreeMap<Double, Double> map, Mode mode) throws IllegalArgumentException {
+		this(mode, keys(map), values(map));
+	}
+
+	/**
+	 * Linear interpolation table
+	 *
+	 * @param keys   - strictly increasing keys, at least two
+	 * @param values - values of the keys
+	 * @throws IllegalArgumentException if the arrays differ in length, have less
+	 *                                  than two points or the keys are not
+	 *                                  strictly increasing
+	 */
+	public InterpolationTable(double[] keys, double[] values) throws IllegalArgumentException {
+		this(Mode.LINEAR, keys.clone(), values.clone());
+	}
+
+	/**
+	 * @param keys   - strictly increasing keys, at least two
+	 * @param values - values of the keys
+	 * @param mode   - interpolation between the keys
+	 * @throws IllegalArgumentException if the arrays differ in length, have less
+	 *                                  than two points or the keys are not
+	 *                                  strictly increasing
+	 */
+	public InterpolationTable(double[] keys, double[] values, Mode mode) throws IllegalArgumentException {
+		this(mode, keys.clone(), values.clone());
+	}
+
+	private InterpolationTable(Mode mode, double[] keys, double[] values) {
+		if (keys.length != values.length)
+			throw new IllegalArgumentException(
+					"Keys and values differ in length: " + keys.length + " and " + values.length);
+		if (keys.length < 2)
+			throw new IllegalArgumentException("Table must have at least two points");
+		for (int i = 1; i < keys.length; i++) {
+			if (!(keys[i] > keys[i - 1]))
+				throw new IllegalArgumentException(
+						"Keys must be strictly increasing: " + keys[i - 1] + " and " + keys[i] + " at " + i);
+		}
+		this.mode = mode;
+		this.keys = keys;
+		this.values = values;
+
+		int segments = keys.length - 1;
+		double[] slopes = new double[segments];
+		for (int i = 0; i < segments; i++) {
+			slopes[i] = MathUtils.K(keys[i], keys[i + 1], values[i], values[i + 1]);
+		}
+		this.b = new double[segments];
+		this.c = new double[segments];
+		this.d = new double[segments];
+		if (mode == Mode.LINEAR || segments == 1) {
+			System.arraycopy(slopes, 0, b, 0, segments);
+		} else if (mode == Mode.CUBIC) {
+			naturalSpline(slopes);
+		} else {
+			hermite(slopes, mode == Mode.MONOTONE ? monotoneDerivatives(slopes) : akimaDerivatives(slopes));
+		}
+		double h = keys[segments] - keys[segments - 1];
+		int i = segments - 1;
+		this.endSlope = b[i] + h * (2 * c[i] + h * (3 * d[i]));
+	}
+
+	/**
+	 * Natural cubic spline. The second derivatives at the keys solve a
+	 * tridiagonal system (Thomas algorithm) with zero at both ends.
+	 */
+	private void naturalSpline(double[] slopes) {
+		int n = keys.length;
+		double[] m = new double[n];
+		double[] diagonal = new double[n];
+		double[] rhs = new double[n];
+		for (int i = 1; i < n - 1; i++) {
+			double h0 = keys[i] - keys[i - 1];
+			double h1 = keys[i + 1] - keys[i];
+			diagonal[i] = 2 * (h0 + h1);
+			rhs[i] = 6 * (slopes[i] - slopes[i - 1]);
+			if (i > 1) {
+				double factor = h0 / diagonal[i - 1];
+				diagonal[i] -= factor * h0;
+				rhs[i] -= factor * rhs[i - 1];
+			}
+		}
+		for (int i = n - 2; i > 0; i--) {
+			m[i] = (rhs[i] - (keys[i + 1] - keys[i]) * m[i + 1]) / diagonal[i];
+		}
+		for (int i = 0; i < n - 1; i++) {
+			double h = keys[i + 1] - keys[i];
+			b[i] = slopes[i] - h * (2 * m[i] + m[i + 1]) / 6;
+			c[i] = m[i] / 2;
+			d[i] = (m[i + 1] - m[i]) / (6 * h);
+		}
+	}
+
+	/**
+	 * Fritsch - Carlson derivatives: averaged slopes, zero at local extrema,
+	 * limited so that every segment stays monotone.
+	 */
+	private static double[] monotoneDerivatives(double[] slopes) {
+		int n = slopes.length + 1;
+		double[] m = new double[n];
+		m[0] = slopes[0];
+		m[n - 1] = slopes[n - 2];
+		for (int i = 1; i < n - 1; i++) {
+			m[i] = slopes[i - 1] * slopes[i] <= 0 ? 0 : (slopes[i - 1] + slopes[i]) / 2;
+		}
+		for (int i = 0; i < n - 1; i++) {
+			if (slopes[i] == 0) {
+				m[i] = 0;
+				m[i + 1] = 0;
+				continue;
+			}
+			double alpha = m[i] / slopes[i];
+			double beta = m[i + 1] / slopes[i];
+			double r = alpha * alpha + beta * beta;
+			if (r > 9) {
+				double tau = 3 / Math.sqrt(r);
+				m[i] = tau * alpha * slopes[i];
+				m[i + 1] = tau * beta * slopes[i];
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Akima derivatives. Two slopes are added beyond each end by linear
+	 * extrapolation of the slopes.
+	 */
+	private static double[] akimaDerivatives(double[] slopes) {
+		int segments = slopes.length;
+		double[] s = new double[segments + 4];
+		System.arraycopy(slopes, 0, s, 2, segments);
+		s[1] = 2 * s[2] - s[3];
+		s[0] = 2 * s[1] - s[2];
+		s[segments + 2] = 2 * s[segments + 1] - s[segments];
+		s[segments + 3] = 2 * s[segments + 2] - s[segments + 1];
+
+		double[] m = new double[segments + 1];
+		for (int i = 0; i <= segments; i++) {
+			// slopes around key i: s[i], s[i + 1] on the left, s[i + 2], s[i + 3] on
+			// the right
+			double w1 = Math.abs(s[i + 3] - s[i + 2]);
+			double w2 = Math.abs(s[i + 1] - s[i]);
+			m[i] = w1 + w2 == 0 ? (s[i + 1] + s[i + 2]) / 2 : (w1 * s[i + 1] + w2 * s[i + 2]) / (w1 + w2);
+		}
+		return m;
+	}
+
+	/**
+	 * Cubic Hermite coefficients from the derivatives at the keys.
+	 */
+	private void hermite(double[] slopes, double[] m) {
+		for (int i = 0; i < slopes.length; i++) {
+			double h = keys[i + 1] - keys[i];
+			b[i] = m[i];
+			c[i] = (3 * slopes[i] - 2 * m[i] - m[i + 1]) / h;
+			d[i] = (m[i] + m[i + 1] - 2 * slopes[i]) / (h * h);
+		}
+	}
+
+	private static double[] keys(TreeMap<Double, Double> map) {
+		double[] keys = new double[map.size()];
+		int i = 0;
+		for (Double key : map.keySet()) {
+			keys[i++] = key;
+		}
+		return keys;
+	}
+
+	private static double[] values(TreeMap<Double, Double> map) {
+		double[] values = new double[map.size()];
+		int i = 0;
+		for (Map.Entry<Double, Double> entry : map.entrySet()) {
+			values[i++] = entry.getValue();
+		}
+		return values;
+	}
+
+	/**
+	 * Interpolate y of x
+	 *
+	 * @param x
+	 * @return y of x, extrapolated by the end segment outside the keys
+	 */
+	public double interpolate(double x) {
+		int last = keys.length - 1;
+		if (x < keys[0])
+			return values[0] - (keys[0] - x) * b[0];
+		if (x > keys[last])
+			return values[last] + (x - keys[last]) * endSlope;
+		if (x == keys[last])
+			return values[last];
+		return value(segment(x), x);
+	}
+
+	/**
+	 * Horner evaluation of segment {@code i}.
+	 */
+	double value(int i, double x) {
+		double s = x - keys[i];
+		return values[i] + s * (b[i] + s * (c[i] + s * d[i]));
+	}
+
+	/**
+	 * Interpolate every query of the array
+	 *
+	 * @param x      - queries
+	 * @param result - array receiving y of x, may be {@code x} itself
+	 * @see #interpolate(double[], double[], int, int)
+	 */
+	public void interpolate(double[] x, double[] result) {
+		interpolate(x, result, 0, x.length);
+	}
+
+	/**
+	 * Interpolate the queries {@code x[offset ... offset + length - 1]} into the
+	 * same elements of {@code result}. Every result is equal to
+	 * {@link #interpolate(double)} of the query.
+	 * <p>
+	 * Non-decreasing queries are answered in one pass that moves along the
+	 * segments together with the queries, O(n + m) for n points and m queries;
+	 * other queries use a binary search each. Inputs longer than 32768 queries
+	 * are split into parts on the {@link ForkJoinPool#commonPool()} and every
+	 * part chooses its own way.
+	 *
+	 * @param x      - queries
+	 * @param result - array receiving y of x, may be {@code x} itself
+	 * @param offset - index of the first query
+	 * @param length - number of queries
+	 * @throws IndexOutOfBoundsException if the range does not fit the arrays
+	 */
+	public void interpolate(double[] x, double[] result, int offset, int length) throws IndexOutOfBoundsException {
+		MathUtils.checkRange(x.length, offset, length);
+		MathUtils.checkRange(result.length, offset, length);
+		if (length > PARALLEL_THRESHOLD)
+			ForkJoinPool.commonPool().invoke(new Lookups(x, result, offset, offset + length));
+		else
+			lookup(x, result, offset, offset + length);
+	}
+
+	/**
+	 * Queries {@code [from, to)} of a batch.
+	 */
+	private class Lookups extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] x;
+		private final double[] result;
+		private final int from;
+		private final int to;
+
+		Lookups(double[] x, double[] result, int from, int to) {
+			this.x = x;
+			this.result = result;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PARALLEL_THRESHOLD) {
+				lookup(x, result, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Lookups(x, result, from, middle), new Lookups(x, result, middle, to));
+		}
+	}
+
+	private void lookup(double[] x, double[] result, int from, int to) {
+		if (isSorted(x, from, to)) {
+			merge(x, result, from, to);
+		} else {
+			for (int j = from; j < to; j++) {
+				result[j] = interpolate(x[j]);
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the queries are non-decreasing; a {@code NaN}
+	 * makes them unsorted.
+	 */
+	private static boolean isSorted(double[] x, int from, int to) {
+		for (int j = from + 1; j < to; j++) {
+			if (!(x[j] >= x[j - 1]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Merge pass over sorted queries: the segment index only moves forward.
+	 */
+	private void merge(double[] x, double[] result, int from, int to) {
+		int last = keys.length - 1;
+		double first = keys[0];
+		double end = keys[last];
+		int i = 0;
+		for (int j = from; j < to; j++) {
+			double xj = x[j];
+			if (xj >= first && xj < end) {
+				while (xj >= keys[i + 1])
+					i++;
+				result[j] = value(i, xj);
+			} else {
+				result[j] = interpolate(xj);
+			}
+		}
+	}
+
+	/**
+	 * Returns the index {@code i} of the segment with
+	 * {@code keys[i] <= x < keys[i + 1]}; {@code x} must be inside the keys.
+	 */
+	int segment(double x) {
+		int low = 0;
+		int high = keys.length - 1;
+		while (high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if (x < keys[middle])
+				high = middle;
+			else
+				low = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * @return new cursor over the table for streaming lookups, one per thread
+	 */
+	public InterpolationCursor cursor() {
+		return new InterpolationCursor(this, keys);
+	}
+
+	/**
+	 * @return interpolation between the keys
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return number of points
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return copy of the keys
+	 */
+	public double[] getKeys() {
+		return keys.clone();
+	}
+
+	/**
+	 * @return copy of the values
+	 */
+	public double[] getValues() {
+		return values.clone();
+	}
+
+	/**
+	 * Returns the internal coefficient array of power 1, 2 or 3 for
+	 * {@link MappedInterpolationTable#write(InterpolationTable, java.nio.file.Path)};
+	 * the array must not be modified.
+	 */
+	double[] coefficients(int power) {
+		return power == 1 ? b : power == 2 ? c : d;
+	}
+
+	@Override
+	public String toString() {
+		return "InterpolationTable [mode=" + mode + ", keys=" + Arrays.toString(keys) + ", values=" + Arrays.toString(values) + "]";
+	}
+
+}
@@ -0,0 +1,299 @@
+package com.esfom.math;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.esfom.math.InterpolationTable.Mode;
+
+/**
+ * Interpolation table read directly from a memory-mapped file.
+ * <p>
+ * Large reference tables are written once by
+ * {@link #write(InterpolationTable, Path)} and opened by {@link #open(Path)},
+ * which maps the file with {@link FileChannel#map(MapMode, long, long)}. The
+ * lookups read the mapped buffer, nothing is copied to the heap, pages are
+ * loaded on demand and several JVMs on one host share the same page cache.
+ * The results are equal to the {@link InterpolationTable} the file was written
+ * from.
+ * <p>
+ * File format, little-endian:
+ * <table border=1>
+ * <tr>
+ * <td><b>OFFSET</b></td>
+ * <td><b>TYPE</b></td>
+ * <td><b>CONTENT</b></td>
+ * </tr>
+ * <tr>
+ * <td>0</td>
+ * <td>int</td>
+ * <td>magic number 0x45534654 ("ESFT")</td>
+ * </tr>
+ * <tr>
+ * <td>4</td>
+ * <td>int</td>
+ * <td>format version, 1</td>
+ * </tr>
+ * <tr>
+ * <td>8</td>
+ * <td>int</td>
+ * <td>{@link Mode} ordinal</td>
+ * </tr>
+ * <tr>
+ * <td>12</td>
+ * <td>int</td>
+ * <td>flags, bit 0: spline coefficients present</td>
+ * </tr>
+ * <tr>
+ * <td>16</td>
+ * <td>long</td>
+ * <td>number of points n</td>
+ * </tr>
+ * <tr>
+ * <td>24</td>
+ * <td>long</td>
+ * <td>reserved, 0</td>
+ * </tr>
+ * <tr>
+ * <td>32</td>
+ * <td>double[n]</td>
+ * <td>strictly increasing keys</td>
+ * </tr>
+ * <tr>
+ * <td>32 + 8n</td>
+ * <td>double[n]</td>
+ * <td>values</td>
+ * </tr>
+ * <tr>
+ * <td>32 + 16n</td>
+ * <td>double[n - 1] x 3</td>
+ * <td>coefficients b, c and d of the segments, only with flag bit 0</td>
+ * </tr>
+ * </table>
+ * A {@link Mode#LINEAR} table is written without coefficients; the slope of a
+ * segment is calculated from its points.
+ * <p>
+ * Instances have no mutable state and may be shared between threads.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public final class MappedInterpolationTable {
+
+	static final int MAGIC = 0x45534654;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int FLAG_COEFFICIENTS = 1;
+
+	private final Mode mode;
+	private final int size;
+	private final DoubleBuffer keys;
+	private final DoubleBuffer values;
+	// null for a linear table
+	private final DoubleBuffer b;
+	private final DoubleBuffer c;
+	private final DoubleBuffer d;
+	private final double firstSlope;
+	private final double endSlope;
+
+	private MappedInterpolationTable(Mode mode, int size, DoubleBuffer data, boolean coefficients) {
+		this.mode = mode;
+		this.size = size;
+		this.keys = column(data, 0, size);
+		this.values = column(data, size, size);
+		int segments = size - 1;
+		if (coefficients) {
+			this.b = column(data, 2 * size, segments);
+			this.c = column(data, 2 * size + segments, segments);
+			this.d = column(data, 2 * size + 2 * segments, segments);
+		} else {
+			this.b = null;
+			this.c = null;
+			this.d = null;
+		}
+		this.firstSlope = b == null ? slope(0) : b.get(0);
+		int i = segments - 1;
+		if (b == null) {
+			this.endSlope = slope(i);
+		} else {
+			double h = keys.get(segments) - keys.get(i);
+			this.endSlope = b.get(i) + h * (2 * c.get(i) + h * (3 * d.get(i)));
+		}
+	}
+
+	private static DoubleBuffer column(DoubleBuffer data, int from, int length) {
+		DoubleBuffer column = data.duplicate();
+		column.position(from);
+		column.limit(from + length);
+		return column.slice();
+	}
+
+	/**
+	 * Maps a table file written by {@link #write(InterpolationTable, Path)}. The
+	 * mapping stays valid after this method returns and is released by the
+	 * garbage collector together with the table.
+	 *
+	 * @param path - table file
+	 * @return table reading the mapped file
+	 * @throws IOException if the file cannot be read, is not a table of this
+	 *                     format or its keys are not strictly increasing
+	 */
+	public static MappedInterpolationTable open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_BYTES)
+				throw new IOException(path + " is not an interpolation table: too short");
+			if (fileSize > Integer.MAX_VALUE)
+				throw new IOException(path + " is larger than 2 GB and cannot be mapped as one buffer");
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, fileSize);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.getInt(0) != MAGIC)
+				throw new IOException(path + " is not an interpolation table: wrong magic number");
+			int version = buffer.getInt(4);
+			if (version != VERSION)
+				throw new IOException(path + " has unsupported format version " + version);
+			int ordinal = buffer.getInt(8);
+			if (ordinal < 0 || ordinal >= Mode.values().length)
+				throw new IOException(path + " has unknown interpolation mode " + ordinal);
+			Mode mode = Mode.values()[ordinal];
+			boolean coefficients = (buffer.getInt(12) & FLAG_COEFFICIENTS) != 0;
+			if (mode != Mode.LINEAR && !coefficients)
+				throw new IOException(path + " is damaged: " + mode + " table without spline coefficients");
+			long points = buffer.getLong(16);
+			if (points < 2 || dataBytes(points, coefficients) != fileSize - HEADER_BYTES)
+				throw new IOException(path + " is damaged: " + points + " points do not match file size " + fileSize);
+
+			buffer.position(HEADER_BYTES);
+			DoubleBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			// The binary search of every lookup relies on the order, check it once
+			for (int i = 1; i < points; i++) {
+				if (!(data.get(i) > data.get(i - 1)))
+					throw new IOException(path + " is damaged: keys are not strictly increasing at index " + i);
+			}
+			return new MappedInterpolationTable(mode, (int) points, data, coefficients);
+		}
+	}
+
+	/**
+	 * Writes the table to a file of the format described in the class
+	 * documentation, replacing an existing file.
+	 *
+	 * @param table - table to write
+	 * @param path  - file to write
+	 * @throws IOException if the file cannot be written or the table needs more
+	 *                     than 2 GB
+	 */
+	public static void write(InterpolationTable table, Path path) throws IOException {
+		boolean coefficients = table.getMode() != Mode.LINEAR;
+		long points = table.size();
+		long fileSize = HEADER_BYTES + dataBytes(points, coefficients);
+		if (fileSize > Integer.MAX_VALUE)
+			throw new IOException("Table of " + points + " points needs more than 2 GB");
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(table.getMode().ordinal())
+					.putInt(coefficients ? FLAG_COEFFICIENTS : 0).putLong(points).putLong(0);
+			header.flip();
+			writeFully(channel, header);
+			writeColumn(channel, table.getKeys());
+			writeColumn(channel, table.getValues());
+			if (coefficients) {
+				for (int power = 1; power <= 3; power++) {
+					writeColumn(channel, table.coefficients(power));
+				}
+			}
+		}
+	}
+
+	private static long dataBytes(long points, boolean coefficients) {
+		long doubles = 2 * points + (coefficients ? 3 * (points - 1) : 0);
+		return doubles * Double.BYTES;
+	}
+
+	private static void writeColumn(FileChannel channel, double[] column) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		int chunk = buffer.capacity() / Double.BYTES;
+		for (int from = 0; from < column.length; from += chunk) {
+			buffer.clear();
+			buffer.asDoubleBuffer().put(column, from, Math.min(chunk, column.length - from));
+			buffer.limit(Math.min(chunk, column.length - from) * Double.BYTES);
+			writeFully(channel, buffer);
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Interpolate y of x
+	 *
+	 * @param x
+	 * @return y of x, continued along the end tangent outside the keys
+	 */
+	public double interpolate(double x) {
+		int last = size - 1;
+		double first = keys.get(0);
+		double end = keys.get(last);
+		if (x < first)
+			return values.get(0) - (first - x) * firstSlope;
+		if (x > end)
+			return values.get(last) + (x - end) * endSlope;
+		if (x == end)
+			return values.get(last);
+		int i = segment(x);
+		double s = x - keys.get(i);
+		if (b == null)
+			return values.get(i) + s * slope(i);
+		return values.get(i) + s * (b.get(i) + s * (c.get(i) + s * d.get(i)));
+	}
+
+	private double slope(int i) {
+		return MathUtils.K(keys.get(i), keys.get(i + 1), values.get(i), values.get(i + 1));
+	}
+
+	private int segment(double x) {
+		int low = 0;
+		int high = size - 1;
+		while (high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if (x < keys.get(middle))
+				high = middle;
+			else
+				low = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * @return interpolation between the keys
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return number of points
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "MappedInterpolationTable [mode=" + mode + ", size=" + size + "]";
+	}
+
+}
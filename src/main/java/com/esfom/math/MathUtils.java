@@ -1,18 +1,12 @@
 package com.esfom.math;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 
 public class MathUtils {
 	private MathUtils() {}
 
-	private static Double key1;
-	private static Double key2;
-	private static Double val1;
-	private static Double val2;
-
 	/**
 	 * Return rounded number
 	 * @param value
@@ -25,6 +19,9 @@ public class MathUtils {
 
 	/**
 	 * Interpolate y of x from TreeMap
+	 * <p>
+	 * Every call navigates the map; for repeated lookups in the same points build
+	 * an {@link InterpolationTable} once.
 	 * 
 	 * @param x
 	 * @param map
@@ -32,17 +29,32 @@ public class MathUtils {
 	 * @return y of x
 	 */
 	public static double interpolate(double x, TreeMap<Double, Double> map) {
+		if (Double.isNaN(x))
+			return Double.NaN;
+		Double exact = map.get(x);
+		if (exact != null)
+			return exact;
 
-		List<Double> keyList = new ArrayList<Double>(map.keySet());
-
-		if (map.containsKey(x)) {
-			return map.get(x);
-		} else if (x < keyList.get(0)) {
-			return isLessThanMinKey(x, keyList, map);
-		} else if (x > keyList.get(keyList.size() - 1)) {
-			return isMoreThanMaxKey(x, keyList, map);
+		Map.Entry<Double, Double> lower;
+		Map.Entry<Double, Double> upper;
+		if (x < map.firstKey()) {
+			lower = map.firstEntry();
+			upper = map.higherEntry(lower.getKey());
+			double key1 = lower.getKey();
+			double val1 = lower.getValue();
+			return val1 - (key1 - x) * K(key1, upper.getKey(), val1, upper.getValue());
+		} else if (x > map.lastKey()) {
+			upper = map.lastEntry();
+			lower = map.lowerEntry(upper.getKey());
+			double key2 = upper.getKey();
+			double val2 = upper.getValue();
+			return val2 + (x - key2) * K(lower.getKey(), key2, lower.getValue(), val2);
 		} else {
-			return isKeyInRange(x, keyList, map);
+			lower = map.lowerEntry(x);
+			upper = map.higherEntry(x);
+			double key1 = lower.getKey();
+			double val1 = lower.getValue();
+			return val1 + (x - key1) * K(key1, upper.getKey(), val1, upper.getValue());
 		}
 	}
 	
@@ -51,49 +63,24 @@ public class MathUtils {
 		
 	}
 
-	private static double isKeyInRange(double x, List<Double> keyList, TreeMap<Double, Double> map) {
-		int first = 0;
-		int last = keyList.size() - 1;
-		while (true) {
-			int middle = (last + first) / 2;
-			if (first == last - 1) {
-				key1 = keyList.get(first);
-				key2 = keyList.get(last);
-				val1 = map.get(key1);
-				val2 = map.get(key2);
-				double K = K(key1, key2, val1, val2);
-				double dK = x - key1;
-				return val1 + dK * K;
-			} else if (x < keyList.get(middle)) {
-				last = middle;
-			} else if (x > keyList.get(middle)) {
-				first = middle;
-			}
-		}
-	}
-
-	private static double isMoreThanMaxKey(double x, List<Double> keyList, TreeMap<Double, Double> map) {
-		key1 = keyList.get(keyList.size() - 2);
-		key2 = keyList.get(keyList.size() - 1);
-		val1 = map.get(key1);
-		val2 = map.get(key2);
-		double K = K(key1, key2, val1, val2);
-		double dK = x - key2;
-		return val2 + dK * K;
-	}
-
-	private static double isLessThanMinKey(double x, List<Double> keyList, TreeMap<Double, Double> map) {
-		key1 = keyList.get(0);
-		key2 = keyList.get(1);
-		val1 = map.get(key1);
-		val2 = map.get(key2);
-		double K = K(key1, key2, val1, val2);
-		double dK = key1 - x;
-		return val1 - dK * K;
+	static double K(double key1, double key2, double val1, double val2) {
+		return (val2 - val1) / (key2 - key1);
 	}
 
-	private static double K(double key1, double key2, double val1, double val2) {
-		return (val2 - val1) / (key2 - key1);
+	/**
+	 * Checks the range of a batch method: {@code length} elements from
+	 * {@code offset} must fit an array of {@code arrayLength} elements.
+	 * 
+	 * @param arrayLength - length of the array
+	 * @param offset      - index of the first element
+	 * @param length      - number of elements
+	 * @throws IndexOutOfBoundsException if the range does not fit the array
+	 */
+	public static void checkRange(int arrayLength, int offset, int length) throws IndexOutOfBoundsException {
+		if (offset < 0 || length < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException(
+					"offset " + offset + ", length " + length + " is out of array length " + arrayLength);
+		}
 	}
 
 }
@@ -0,0 +1,349 @@
+package com.esfom.math;
+
+import java.math.BigInteger;
+
+/**
+ * Combinatorics modulo a prime: every {@link Combinatorics#smartCalc(int,
+ * Integer, boolean, boolean) smartCalc} formula (A, A_, P, P_, C, C_) as a
+ * residue in {@code [0, p)} instead of the exact {@link BigInteger}.
+ * <p>
+ * At construction the tables of i! mod p and (i!)<sup>-1</sup> mod p are
+ * filled for i up to min(p - 1, maxN) in O(maxN). Every query reads the tables
+ * only: P(n), A(n, k) and C(n, k) cost O(1) for n &lt; p, and for n &gt;= p the
+ * binomial coefficient is calculated by Lucas' theorem from the base-p digits
+ * of n and k in O(log<sub>p</sub> n). All products of two residues fit in a
+ * {@code long} because p &lt; 2<sup>31</sup>.
+ * <p>
+ * For p &lt;= maxN + 1 the tables cover every residue and all arguments are
+ * accepted. For a larger prime, e.g. 10<sup>9</sup> + 7, a query that needs a
+ * residue of n mod p above maxN is rejected with an
+ * {@link IllegalArgumentException} instead of falling back to an O(n) product;
+ * size maxN for the largest n of the queries.
+ * <p>
+ * Instances are immutable and may be shared between threads.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public class ModularCombinatorics {
+
+	private static final int DEFAULT_TABLE_LIMIT = 1 << 20;
+
+	private final long p;
+	private final int tableLimit;
+	private final long[] factorials;
+	private final long[] inverseFactorials;
+
+	/**
+	 * Tables up to min(p - 1, 2<sup>20</sup>)
+	 *
+	 * @param modulus - prime p &lt; 2<sup>31</sup>
+	 * @throws IllegalArgumentException if the modulus is not a prime
+	 */
+	public ModularCombinatorics(int modulus) throws IllegalArgumentException {
+		this(modulus, DEFAULT_TABLE_LIMIT);
+	}
+
+	/**
+	 * @param modulus - prime p &lt; 2<sup>31</sup>
+	 * @param maxN    - largest n of the tables, limited to p - 1; queries that
+	 *                need a larger residue mod p are rejected
+	 * @throws IllegalArgumentException if the modulus is not a prime or maxN is
+	 *                                  negative
+	 */
+	public ModularCombinatorics(int modulus, int maxN) throws IllegalArgumentException {
+		if (modulus < 2 || !BigInteger.valueOf(modulus).isProbablePrime(64))
+			throw new IllegalArgumentException("Modulus " + modulus + " is not a prime");
+		if (maxN < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		this.p = modulus;
+		this.tableLimit = Math.min(modulus - 1, maxN);
+
+		factorials = new long[tableLimit + 1];
+		inverseFactorials = new long[tableLimit + 1];
+		factorials[0] = 1;
+		for (int i = 1; i <= tableLimit; i++) {
+			factorials[i] = factorials[i - 1] * i % p;
+		}
+		inverseFactorials[tableLimit] = inverse(factorials[tableLimit]);
+		for (int i = tableLimit; i > 0; i--) {
+			inverseFactorials[i - 1] = inverseFactorials[i] * i % p;
+		}
+	}
+
+	/**
+	 * P(n) = n! mod p
+	 *
+	 * @param n - set
+	 * @return possible permutations in n set mod p
+	 */
+	public long permutationsNoRepeats(int n) throws IllegalArgumentException {
+		return factorial(n);
+	}
+
+	/**
+	 * P_(n1,n2...nk) = n!/(n1!*n2!*...*nk!) mod p
+	 * <p>
+	 * Unlike {@link Combinatorics#permutationsWithRepeats(int, int[])}, which
+	 * keeps the truncating division for repeats adding up to more than n, such
+	 * arguments are rejected: the quotient is not an integer and has no residue.
+	 *
+	 * @param n  - set
+	 * @param ns - repeats {n1,n2...nk} with n1 + n2 + ... + nk &lt;= n
+	 * @return possible permutations WITH repeats mod p
+	 * @throws IllegalArgumentException if an argument is negative or the repeats
+	 *                                  add up to more than n
+	 */
+	public long permutationsWithRepeats(int n, int[] ns) throws IllegalArgumentException {
+		if (n < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		// product of C(n1 + ... + ni, ni) times n!/(n1 + ... + nk)!
+		long result = 1;
+		long sum = 0;
+		for (int ni : ns) {
+			if (ni < 0)
+				throw new IllegalArgumentException("Number must be positive");
+			sum += ni;
+			if (sum > n)
+				throw new IllegalArgumentException("[sum > n] : repeats add up to more than " + n);
+			result = result * binomial(sum, ni) % p;
+		}
+		return result * accomodationsNoRepeats(n, (int) (n - sum)) % p;
+	}
+
+	/**
+	 * P_(n1,n2...nk) mod p with n as sum of ni
+	 *
+	 * @param ns - repeats {n1,n2...nk}
+	 * @return possible permutations WITH repeats mod p
+	 */
+	public long permutationsWithRepeats(int[] ns) throws IllegalArgumentException {
+		long n = 0;
+		for (int ni : ns) {
+			n += ni;
+		}
+		if (n > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Repeats add up to " + n + ", more than an int");
+		return permutationsWithRepeats((int) n, ns);
+	}
+
+	/**
+	 * A_(n,k) = n^k mod p
+	 *
+	 * @param n - set
+	 * @param k - subset
+	 * @return possible placements WITH repeats mod p
+	 */
+	public long accomodationsWithRepeats(int n, int k) throws IllegalArgumentException {
+		if (k < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		return power(Math.floorMod(n, p), k);
+	}
+
+	/**
+	 * A(n,k) = n!/(n-k)! mod p
+	 *
+	 * @param n - set
+	 * @param k - subset
+	 * @return possible placements WITHOUT repeats mod p
+	 */
+	public long accomodationsNoRepeats(int n, int k) throws IllegalArgumentException {
+		argumentsCheck(n, k);
+		if (k == 0)
+			return 1;
+		long from = (long) n - k;
+		// The factors from + 1 ... n include a multiple of p
+		if (n / p != from / p)
+			return 0;
+		int high = (int) (n % p);
+		int low = (int) (from % p);
+		return factorialResidue(high) * inverseFactorials[low] % p;
+	}
+
+	/**
+	 * C(n,k) = n!/(k!*(n-k)!) mod p
+	 *
+	 * @param n -set
+	 * @param k - subset
+	 * @return possible combinations WITHOUT repeats mod p
+	 */
+	public long combinationsNoRepeats(int n, int k) throws IllegalArgumentException {
+		argumentsCheck(n, k);
+		return binomial(n, k);
+	}
+
+	/**
+	 * C_(n,k) = (n+k-1)!/(k!*(n-1)!) mod p
+	 *
+	 * @param n -set
+	 * @param k - subset
+	 * @return possible combinations WITH repeats mod p
+	 */
+	public long combinationsWithRepeats(int n, int k) throws IllegalArgumentException {
+		argumentsCheck(n, k);
+		if (k == 0)
+			return 1;
+		return binomial((long) n + k - 1, k);
+	}
+
+	/**
+	 * {@link Combinatorics#smartCalc(int, Integer, boolean, boolean) smartCalc}
+	 * mod p
+	 *
+	 * @param n       - set
+	 * @param k       - subset. NULL if absent
+	 * @param order   - true if order is important
+	 * @param repeats - true if repeats available (WITH repeats)
+	 * @return result based on the most appropriate formula mod p
+	 * @throws IllegalArgumentException
+	 */
+	public long smartCalc(int n, Integer k, boolean order, boolean repeats) throws IllegalArgumentException {
+		if (order && repeats && k != null) {
+			return accomodationsWithRepeats(n, k);
+		} else if (order && !repeats && k != null) {
+			return accomodationsNoRepeats(n, k);
+		} else if (order && (k == null || n == k)) {
+			return permutationsNoRepeats(n);
+		} else if (!order && !repeats && k != null) {
+			return combinationsNoRepeats(n, k);
+		} else if (!order && repeats && k != null) {
+			return combinationsWithRepeats(n, k);
+		}
+		throw new IllegalArgumentException("Have NO formula for this arguments set.");
+	}
+
+	/**
+	 * C(n[i], k[i]) mod p for {@code i = offset ... offset + length - 1}
+	 *
+	 * @param n      - sets
+	 * @param k      - subsets
+	 * @param result - array receiving the results
+	 * @param offset - index of the first query
+	 * @param length - number of queries
+	 * @throws IndexOutOfBoundsException if the range does not fit the arrays
+	 */
+	public void combinationsNoRepeats(int[] n, int[] k, long[] result, int offset, int length)
+			throws IllegalArgumentException, IndexOutOfBoundsException {
+		MathUtils.checkRange(n.length, offset, length);
+		MathUtils.checkRange(k.length, offset, length);
+		MathUtils.checkRange(result.length, offset, length);
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = combinationsNoRepeats(n[i], k[i]);
+		}
+	}
+
+	/**
+	 * {@link #smartCalc(int, Integer, boolean, boolean) smartCalc} for
+	 * {@code i = offset ... offset + length - 1}
+	 *
+	 * @param n       - sets
+	 * @param k       - subsets, NULL if absent
+	 * @param order   - true if order is important
+	 * @param repeats - true if repeats available (WITH repeats)
+	 * @param result  - array receiving the results
+	 * @param offset  - index of the first query
+	 * @param length  - number of queries
+	 * @throws IndexOutOfBoundsException if the range does not fit the arrays
+	 */
+	public void smartCalc(int[] n, int[] k, boolean order, boolean repeats, long[] result, int offset, int length)
+			throws IllegalArgumentException, IndexOutOfBoundsException {
+		MathUtils.checkRange(n.length, offset, length);
+		if (k != null)
+			MathUtils.checkRange(k.length, offset, length);
+		MathUtils.checkRange(result.length, offset, length);
+		for (int i = offset, end = offset + length; i < end; i++) {
+			result[i] = smartCalc(n[i], k == null ? null : k[i], order, repeats);
+		}
+	}
+
+	/**
+	 * n! mod p, zero for n &gt;= p
+	 */
+	private long factorial(int n) throws IllegalArgumentException {
+		if (n < 0)
+			throw new IllegalArgumentException("Number must be positive");
+		return n >= p ? 0 : factorialResidue(n);
+	}
+
+	/**
+	 * r! mod p for 0 &lt;= r &lt; p from the table.
+	 */
+	private long factorialResidue(int r) throws IllegalArgumentException {
+		checkTable(r);
+		return factorials[r];
+	}
+
+	private void checkTable(int r) throws IllegalArgumentException {
+		if (r > tableLimit)
+			throw new IllegalArgumentException(
+					"[n > maxN] : residue " + r + " mod " + p + " is above the factorial tables up to " + tableLimit);
+	}
+
+	/**
+	 * C(n, k) mod p for 0 &lt;= k &lt;= n by Lucas' theorem: the product of the
+	 * binomial coefficients of the base-p digits.
+	 */
+	private long binomial(long n, long k) {
+		long result = 1;
+		while (k > 0) {
+			int ni = (int) (n % p);
+			int ki = (int) (k % p);
+			if (ki > ni)
+				return 0;
+			result = result * digitBinomial(ni, ki) % p;
+			n /= p;
+			k /= p;
+		}
+		return result;
+	}
+
+	/**
+	 * C(n, k) mod p for 0 &lt;= k &lt;= n &lt; p.
+	 */
+	private long digitBinomial(int n, int k) throws IllegalArgumentException {
+		checkTable(n);
+		return factorials[n] * inverseFactorials[k] % p * inverseFactorials[n - k] % p;
+	}
+
+	/**
+	 * Inverse of a residue by Fermat's little theorem, a<sup>p-2</sup> mod p.
+	 */
+	private long inverse(long a) {
+		return power(a, p - 2);
+	}
+
+	private long power(long base, long exponent) {
+		long result = 1 % p;
+		base %= p;
+		while (exponent > 0) {
+			if ((exponent & 1) == 1)
+				result = result * base % p;
+			base = base * base % p;
+			exponent >>= 1;
+		}
+		return result;
+	}
+
+	private static void argumentsCheck(int n, int k) throws IllegalArgumentException {
+		if (k > n)
+			throw new IllegalArgumentException("[k > n] : n must be greater or equal k");
+		if (k < 0)
+			throw new IllegalArgumentException("Number must be positive");
+	}
+
+	/**
+	 * @return prime modulus
+	 */
+	public int getModulus() {
+		return (int) p;
+	}
+
+	/**
+	 * @return largest n of the factorial tables
+	 */
+	public int getTableLimit() {
+		return tableLimit;
+	}
+
+}
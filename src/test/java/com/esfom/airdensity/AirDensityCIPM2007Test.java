@@ -0,0 +1,50 @@
+package com.esfom.airdensity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reference values of {@link AirDensityCIPM2007}.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class AirDensityCIPM2007Test {
+
+	private final AirDensityCIPM2007 cipm2007 = new AirDensityCIPM2007();
+
+	/**
+	 * 20 <sup>O</sup>C, 50 %RH, 101325 Pa and Xco<sub>2</sub> = 0.0004: the
+	 * vapour pressure at saturation is 2.339 kPa and the air density 1.1993
+	 * kg/m<sup>3</sup>.
+	 */
+	@Test
+	public void referencePoint() {
+		AirDensityResult result = cipm2007.evaluate(20, 0.5, 101325, 0.0004, new AirDensityResult());
+		assertEquals(2339, result.getSaturationVapourPressure(), 0.5);
+		assertEquals(1.1993, result.getAirDensity(), 5E-5);
+		assertEquals(cipm2007.getAirDensity(20, 0.5, 101325), cipm2007.getAirDensity(20, 0.5, 101325, 0.0004));
+	}
+
+	/**
+	 * Ma = [28.96546 + 12.011 (Xco<sub>2</sub> - 0.0004)] 10<sup>-3</sup>
+	 * kg/mol, and the density is linear in Ma: rho = p/(ZRT) [Ma (1 - xv) + xv
+	 * Mv].
+	 */
+	@Test
+	public void carbonDioxideCorrection() {
+		double xCO2 = 0.0005;
+		assertEquals((28.96546 + 12.011 * (xCO2 - 0.0004)) * 1E-3, cipm2007.dryAirMolarMass(xCO2), 1E-15);
+
+		AirDensityResult reference = cipm2007.evaluate(20, 0.5, 101325, 0.0004, new AirDensityResult());
+		AirDensityResult result = cipm2007.evaluate(20, 0.5, 101325, xCO2, new AirDensityResult());
+		double xv = reference.getWaterVapourMoleFraction();
+		double expected = reference.getAirDensity() + 101325 / (reference.getCompressibilityFactor()
+				* cipm2007.getMOLAR_GAS_CONSTANT() * 293.15) * (1 - xv) * 12.011E-3 * (xCO2 - 0.0004);
+		assertEquals(expected, result.getAirDensity(), 1E-12);
+		// About 4.1E-5 relative, ten times less than with the former 10E-3 factor
+		assertEquals(4.1E-5, result.getAirDensity() / reference.getAirDensity() - 1, 0.1E-5);
+	}
+
+}
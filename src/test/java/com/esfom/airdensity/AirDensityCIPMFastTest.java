@@ -0,0 +1,70 @@
+package com.esfom.airdensity;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Accuracy of {@link AirDensityCIPMFast} against the source equations on a
+ * dense temperature, humidity and pressure grid.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class AirDensityCIPMFastTest {
+
+	// Grid points per argument
+	private static final int POINTS = 101;
+	private static final double MAX_RELATIVE_ERROR = 1E-12;
+
+	@Test
+	public void cipm1981() {
+		check(new AirDensityCIPM1981());
+	}
+
+	@Test
+	public void cipm1991() {
+		check(new AirDensityCIPM1991());
+	}
+
+	@Test
+	public void cipm2007() {
+		check(new AirDensityCIPM2007());
+	}
+
+	/**
+	 * Compares the air density with the source equation over the approximated
+	 * temperature range, 0 - 100 %RH and 60 - 110 kPa.
+	 */
+	private static void check(AirDensity source) {
+		AirDensityCIPMFast fast = new AirDensityCIPMFast(source);
+		double psvError = fast.getMaxRelativeError();
+		assertTrue(psvError < MAX_RELATIVE_ERROR,
+				source.getEquationName() + ": saturation vapour pressure error " + psvError);
+
+		double minTemperature = fast.getMinTemperature();
+		double maxTemperature = fast.getMaxTemperature();
+		double[] t = new double[POINTS];
+		double[] h = new double[POINTS];
+		double[] p = new double[POINTS];
+		double[] approximate = new double[POINTS];
+		double[] exact = new double[POINTS];
+		double deviation = 0;
+		for (int i = 0; i < POINTS; i++) {
+			for (int j = 0; j < POINTS; j++) {
+				for (int k = 0; k < POINTS; k++) {
+					t[k] = minTemperature + (maxTemperature - minTemperature) * i / (POINTS - 1);
+					h[k] = (double) j / (POINTS - 1);
+					p[k] = 60000 + 50000.0 * k / (POINTS - 1);
+				}
+				fast.getAirDensity(t, h, p, approximate, 0, POINTS);
+				source.getAirDensity(t, h, p, exact, 0, POINTS);
+				for (int k = 0; k < POINTS; k++) {
+					deviation = Math.max(deviation, Math.abs(approximate[k] / exact[k] - 1));
+				}
+			}
+		}
+		assertTrue(deviation < MAX_RELATIVE_ERROR, source.getEquationName() + ": air density error " + deviation);
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.esfom.airdensity.uncertainty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.esfom.airdensity.AirDensityCIPM2007;
+import com.esfom.airdensity.AirDensityGradient;
+
+/**
+ * Seeded Monte Carlo runs of {@link MonteCarloAirDensity} against the GUM
+ * linearised uncertainty of {@link AirDensityGradient}.
+ *
+ * @author Firsov Konstantin <firsov.k.n@gmail.com>
+ * @since JDK8
+ */
+public class MonteCarloAirDensityTest {
+
+	private static final double T = 20, UT = 0.1;
+	private static final double H = 0.5, UH = 0.02;
+	private static final double P = 101325, UP = 10;
+
+	private final AirDensityCIPM2007 cipm2007 = new AirDensityCIPM2007();
+
+	private MonteCarloAirDensity monteCarlo(long seed) {
+		MonteCarloAirDensity monteCarlo = new MonteCarloAirDensity(cipm2007);
+		monteCarlo.setTemperature(Distribution.normal(T, UT));
+		monteCarlo.setHumidity(Distribution.normal(H, UH));
+		monteCarlo.setPressure(Distribution.normal(P, UP));
+		monteCarlo.setTrials(1000000);
+		monteCarlo.setSeed(seed);
+		return monteCarlo;
+	}
+
+	@Test
+	public void agreesWithLinearisedUncertainty() {
+		MonteCarloResult result = monteCarlo(42).run();
+		AirDensityGradient gradient = cipm2007.getAirDensityGradient(T, H, P, new AirDensityGradient());
+		double u = gradient.getCombinedStandardUncertainty(UT, UH, UP, 0);
+
+		// The equation is almost linear over a few standard uncertainties
+		assertEquals(1000000, result.getTrials());
+		assertEquals(gradient.getAirDensity(), result.getMean(), 0.01 * u);
+		assertEquals(u, result.getStandardUncertainty(), 0.01 * u);
+		assertEquals(result.getMean() - 1.96 * u, result.getLowCoverageLimit(), 0.02 * u);
+		assertEquals(result.getMean() + 1.96 * u, result.getHighCoverageLimit(), 0.02 * u);
+	}
+
+	@Test
+	public void seedGivesSameResultOnAnyPool() {
+		MonteCarloResult common = monteCarlo(7).run();
+		MonteCarloAirDensity single = monteCarlo(7);
+		ForkJoinPool pool = new ForkJoinPool(1);
+		try {
+			single.setPool(pool);
+			MonteCarloResult result = single.run();
+			assertEquals(common.getMean(), result.getMean(), 0);
+			assertEquals(common.getStandardUncertainty(), result.getStandardUncertainty(), 0);
+			assertEquals(common.getLowCoverageLimit(), result.getLowCoverageLimit(), 0);
+			assertEquals(common.getHighCoverageLimit(), result.getHighCoverageLimit(), 0);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void nonFiniteDensityIsRejected() {
+		MonteCarloAirDensity monteCarlo = monteCarlo(1);
+		monteCarlo.setHumidity(Distribution.constant(Double.NaN));
+		assertThrows(IllegalStateException.class, monteCarlo::run);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.esfom.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Results of {@link CombinatoricsCache} against {@link Combinatorics} under a
+ * memory budget small enough to force evictions.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public class CombinatoricsCacheTest {
+
+	private static final long SMALL_BUDGET = 64L << 10;
+
+	@Test
+	public void smallBudget() {
+		CombinatoricsCache cache = new CombinatoricsCache(SMALL_BUDGET, 200);
+		assertEquals(SMALL_BUDGET, cache.getMaxBytes());
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = 0; i < 3000; i++) {
+			int n = random.nextInt(600);
+			int k = random.nextInt(n + 1);
+			switch (i % 4) {
+			case 0:
+				assertEquals(Combinatorics.factorial(n), cache.factorial(n), n + "!");
+				break;
+			case 1:
+				assertEquals(Combinatorics.combinationsNoRepeats(n, k), cache.combinationsNoRepeats(n, k),
+						"C(" + n + "," + k + ")");
+				break;
+			case 2:
+				if (n > 0)
+					assertEquals(Combinatorics.combinationsWithRepeats(n, k), cache.combinationsWithRepeats(n, k),
+							"C_(" + n + "," + k + ")");
+				break;
+			default:
+				assertEquals(Combinatorics.permutationsWithRepeats(n, Arrays.asList(k, (n - k) / 2)),
+						cache.permutationsWithRepeats(n, Arrays.asList(k, (n - k) / 2)), "P_(" + n + "," + k + ")");
+			}
+			assertTrue(cache.getUsedBytes() <= cache.getMaxBytes(), cache.getUsedBytes() + " bytes used");
+		}
+		assertTrue(cache.size() > 0);
+		assertTrue(cache.getHits() > 0);
+		assertTrue(cache.getMisses() > 0);
+	}
+
+	@Test
+	public void entryAboveBudget() {
+		CombinatoricsCache cache = new CombinatoricsCache(SMALL_BUDGET, 0);
+		cache.factorial(100);
+		long used = cache.getUsedBytes();
+		// 40000! takes about 70 KB and is returned without being cached
+		assertEquals(Combinatorics.factorial(40000), cache.factorial(40000));
+		assertEquals(used, cache.getUsedBytes());
+		assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+	}
+
+	@Test
+	public void clear() {
+		CombinatoricsCache cache = new CombinatoricsCache(SMALL_BUDGET, 200);
+		cache.combinationsNoRepeats(150, 70);
+		cache.factorial(300);
+		assertTrue(cache.getUsedBytes() > 0);
+		cache.clear();
+		assertEquals(0, cache.getUsedBytes());
+		assertEquals(0, cache.size());
+		assertEquals(Combinatorics.combinationsNoRepeats(150, 70), cache.combinationsNoRepeats(150, 70));
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.esfom.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Results of {@link Combinatorics} against the multiplicative formulas.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public class CombinatoricsTest {
+
+	@Test
+	public void combinationsWithRepeats() {
+		assertEquals(BigInteger.valueOf(15), Combinatorics.combinationsWithRepeats(5, 2));
+		for (int n = 1; n < 40; n++) {
+			for (int k = 0; k <= n; k++) {
+				assertEquals(binomial(n + k - 1, k), Combinatorics.combinationsWithRepeats(n, k), "C_(" + n + "," + k + ")");
+			}
+		}
+	}
+
+	@Test
+	public void combinationsNoRepeats() {
+		for (int n = 0; n < 120; n++) {
+			for (int k = 0; k <= n; k++) {
+				assertEquals(binomial(n, k), Combinatorics.combinationsNoRepeats(n, k), "C(" + n + "," + k + ")");
+			}
+		}
+	}
+
+	@Test
+	public void accomodationsNoRepeats() {
+		for (int n = 0; n < 60; n++) {
+			BigInteger falling = BigInteger.ONE;
+			for (int k = 0; k <= n; k++) {
+				assertEquals(falling, Combinatorics.accomodationsNoRepeats(n, k), "A(" + n + "," + k + ")");
+				falling = falling.multiply(BigInteger.valueOf(n - k));
+			}
+		}
+	}
+
+	@Test
+	public void factorial() {
+		BigInteger factorial = BigInteger.ONE;
+		for (int n = 0; n < 300; n++) {
+			assertEquals(factorial, Combinatorics.factorial(n), n + "!");
+			factorial = factorial.multiply(BigInteger.valueOf(n + 1));
+		}
+	}
+
+	@Test
+	public void emptySubset() {
+		for (int n = 0; n < 10; n++) {
+			assertEquals(BigInteger.ONE, Combinatorics.accomodationsNoRepeats(n, 0));
+			assertEquals(BigInteger.ONE, Combinatorics.combinationsNoRepeats(n, 0));
+			assertEquals(1, Combinatorics.accomodationsNoRepeatsExact(n, 0));
+			assertEquals(1, Combinatorics.combinationsNoRepeatsExact(n, 0));
+		}
+		for (int n = 1; n < 10; n++) {
+			assertEquals(BigInteger.ONE, Combinatorics.combinationsWithRepeats(n, 0));
+			assertEquals(1, Combinatorics.combinationsWithRepeatsExact(n, 0));
+		}
+		assertEquals(BigInteger.ONE, Combinatorics.combinationsWithRepeats(1, 1));
+		assertEquals(1, Combinatorics.combinationsWithRepeatsExact(1, 1));
+	}
+
+	@Test
+	public void invalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsWithRepeats(1, -5));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsWithRepeatsExact(1, -5));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsNoRepeats(5, -1));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.accomodationsNoRepeats(5, -1));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsNoRepeats(-3, -3));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsNoRepeats(3, 4));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.accomodationsNoRepeats(3, 4));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsWithRepeats(3, 4));
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.factorial(-1));
+	}
+
+	@Test
+	public void longOverflowBoundary() {
+		// C(66,33) is the largest central binomial coefficient below 2^63
+		assertEquals(7219428434016265740L, Combinatorics.combinationsNoRepeatsExact(66, 33));
+		assertEquals(BigInteger.valueOf(7219428434016265740L), Combinatorics.combinationsNoRepeats(66, 33));
+		assertEquals(new BigInteger("28453041475240576740"), Combinatorics.combinationsNoRepeats(68, 34));
+		assertEquals(binomial(68, 34), Combinatorics.combinationsNoRepeats(68, 34));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.combinationsNoRepeatsExact(68, 34));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.combinationsNoRepeatsExact(67, 33));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.factorialExact(21));
+		assertEquals(2432902008176640000L, Combinatorics.factorialExact(20));
+
+		// (-2)^63 is exactly Long.MIN_VALUE, 2^63 and (-2)^64 are not
+		assertEquals(Long.MIN_VALUE, Combinatorics.accomodationsWithRepeatsExact(-2, 63));
+		assertEquals(BigInteger.valueOf(Long.MIN_VALUE), Combinatorics.accomodationsWithRepeats(-2, 63));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.accomodationsWithRepeatsExact(2, 63));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.accomodationsWithRepeatsExact(-2, 64));
+		assertEquals(BigInteger.valueOf(2).pow(63), Combinatorics.accomodationsWithRepeats(2, 63));
+		assertEquals(BigInteger.valueOf(2).pow(64), Combinatorics.accomodationsWithRepeats(-2, 64));
+	}
+
+	/**
+	 * C(n,k) = prod (n-k+i)/i, i = 1...k in BigInteger
+	 */
+	static BigInteger binomial(int n, int k) {
+		BigInteger result = BigInteger.ONE;
+		for (int i = 1; i <= k; i++) {
+			result = result.multiply(BigInteger.valueOf(n - k + i)).divide(BigInteger.valueOf(i));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.esfom.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Results of {@link Factorials} against the textbook formulas.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public class FactorialsTest {
+
+	@Test
+	public void multinomial() {
+		SplittableRandom random = new SplittableRandom(11);
+		for (int i = 0; i < 2000; i++) {
+			int n = random.nextInt(300);
+			int[] ks = new int[1 + random.nextInt(5)];
+			int rest = n;
+			for (int j = 0; j < ks.length; j++) {
+				ks[j] = random.nextInt(rest + 1);
+				rest -= ks[j];
+			}
+			BigInteger denominator = BigInteger.ONE;
+			for (int k : ks) {
+				denominator = denominator.multiply(factorial(k));
+			}
+			assertEquals(factorial(n).divide(denominator), Factorials.multinomial(n, ks),
+					n + "!/" + Arrays.toString(ks));
+		}
+		// more than 8192 primes below n take the parallel product tree
+		assertEquals(Factorials.product(50001, 100000).divide(Factorials.product(2, 30000))
+				.divide(Factorials.product(2, 20000)), Factorials.multinomial(100000, 50000, 30000, 20000));
+		assertEquals(BigInteger.ONE, Factorials.multinomial(0));
+		assertEquals(BigInteger.ONE, Factorials.multinomial(1, 1));
+		assertEquals(BigInteger.valueOf(2), Factorials.multinomial(2, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> Factorials.multinomial(5, 3, 3));
+		assertThrows(IllegalArgumentException.class, () -> Factorials.multinomial(5, -1));
+	}
+
+	@Test
+	public void primes() {
+		final int limit = 5000;
+		boolean[] composite = new boolean[limit + 1];
+		int[] expected = new int[limit];
+		int count = 0;
+		for (int p = 2; p <= limit; p++) {
+			if (composite[p])
+				continue;
+			expected[count++] = p;
+			for (int m = 2 * p; m <= limit; m += p) {
+				composite[m] = true;
+			}
+		}
+		// every n crosses the 64-bit word boundaries of the odd-only sieve
+		int below = 0;
+		for (int n = 0; n <= limit; n++) {
+			while (below < count && expected[below] <= n) {
+				below++;
+			}
+			assertArrayEquals(Arrays.copyOf(expected, below), Factorials.primes(n), "primes(" + n + ")");
+		}
+	}
+
+	@Test
+	public void factorialAndProduct() {
+		for (int n = 0; n < 200; n++) {
+			assertEquals(factorial(n), Factorials.factorial(n), n + "!");
+			assertEquals(factorial(n).divide(factorial(n / 3)), Factorials.fallingFactorial(n, n - n / 3));
+		}
+		assertEquals(BigInteger.ONE, Factorials.product(5, 4));
+		assertEquals(BigInteger.ZERO, Factorials.product(-3, 3));
+		assertEquals(BigInteger.valueOf(-6), Factorials.product(-3, -1));
+		assertThrows(IllegalArgumentException.class, () -> Factorials.product(5, 3));
+		assertThrows(IllegalArgumentException.class, () -> Factorials.factorial(-1));
+	}
+
+	/**
+	 * n! = 1 * 2 * ... * n one factor at a time
+	 */
+	private static BigInteger factorial(int n) {
+		BigInteger result = BigInteger.ONE;
+		for (int i = 2; i <= n; i++) {
+			result = result.multiply(BigInteger.valueOf(i));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.esfom.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Residues of {@link ModularCombinatorics} against {@link BigInteger#mod} of
+ * the exact {@link Combinatorics} results.
+ *
+ * @author firsov.k.n@gmail.com
+ * @since 2022
+ *
+ */
+public class ModularCombinatoricsTest {
+
+	private static final int SMALL_PRIME = 7;
+	private static final int LARGE_PRIME = 1000000007;
+
+	@Test
+	public void smallPrime() {
+		ModularCombinatorics modular = new ModularCombinatorics(SMALL_PRIME);
+		BigInteger p = BigInteger.valueOf(SMALL_PRIME);
+		// n >= p exercises Lucas' theorem and the multiple of p in A(n, k)
+		for (int n = 0; n <= 80; n++) {
+			assertEquals(mod(Combinatorics.factorial(n), p), modular.permutationsNoRepeats(n), n + "!");
+			for (int k = 0; k <= n; k++) {
+				String args = "(" + n + "," + k + ")";
+				assertEquals(mod(Combinatorics.accomodationsNoRepeats(n, k), p), modular.accomodationsNoRepeats(n, k),
+						"A" + args);
+				assertEquals(mod(Combinatorics.accomodationsWithRepeats(n, k), p),
+						modular.accomodationsWithRepeats(n, k), "A_" + args);
+				assertEquals(mod(Combinatorics.combinationsNoRepeats(n, k), p), modular.combinationsNoRepeats(n, k),
+						"C" + args);
+				if (n > 0)
+					assertEquals(mod(Combinatorics.combinationsWithRepeats(n, k), p),
+							modular.combinationsWithRepeats(n, k), "C_" + args);
+				int[] ns = { k, (n - k) / 2 };
+				assertEquals(mod(Combinatorics.permutationsWithRepeats(n, ns), p),
+						modular.permutationsWithRepeats(n, ns), "P_" + args);
+			}
+		}
+	}
+
+	@Test
+	public void multipleOfPrimeInAccomodations() {
+		ModularCombinatorics modular = new ModularCombinatorics(SMALL_PRIME);
+		// 13 * 12 * 11 * 10 * 9 * 8 contains no multiple of 7, 15 * 14 does
+		assertEquals(mod(Combinatorics.accomodationsNoRepeats(13, 6), BigInteger.valueOf(SMALL_PRIME)),
+				modular.accomodationsNoRepeats(13, 6));
+		assertTrue(modular.accomodationsNoRepeats(13, 6) != 0);
+		assertEquals(0, modular.accomodationsNoRepeats(15, 2));
+	}
+
+	@Test
+	public void largePrimeWithSmallTables() {
+		ModularCombinatorics modular = new ModularCombinatorics(LARGE_PRIME, 50);
+		assertEquals(50, modular.getTableLimit());
+		BigInteger p = BigInteger.valueOf(LARGE_PRIME);
+		for (int n = 0; n <= 50; n++) {
+			for (int k = 0; k <= n; k++) {
+				assertEquals(mod(Combinatorics.combinationsNoRepeats(n, k), p), modular.combinationsNoRepeats(n, k));
+				assertEquals(mod(Combinatorics.accomodationsNoRepeats(n, k), p), modular.accomodationsNoRepeats(n, k));
+			}
+		}
+		// Lucas' theorem: the base-p digits of p + 3 and 2 are (1, 3) and (0, 2)
+		assertEquals(mod(CombinatoricsTest.binomial(LARGE_PRIME + 3, 2), p),
+				modular.combinationsNoRepeats(LARGE_PRIME + 3, 2));
+		assertEquals(3, modular.combinationsNoRepeats(LARGE_PRIME + 3, 2));
+		assertEquals(6, modular.accomodationsNoRepeats(LARGE_PRIME + 3, 2));
+		assertEquals(0, modular.accomodationsNoRepeats(LARGE_PRIME + 3, 5));
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> modular.combinationsNoRepeats(60, 3));
+		assertTrue(e.getMessage().startsWith("[n > maxN]"));
+		assertThrows(IllegalArgumentException.class, () -> modular.permutationsNoRepeats(51));
+		assertThrows(IllegalArgumentException.class, () -> modular.accomodationsNoRepeats(LARGE_PRIME + 60, 2));
+	}
+
+	@Test
+	public void sameArgumentRulesAsCombinatorics() {
+		ModularCombinatorics modular = new ModularCombinatorics(SMALL_PRIME);
+		assertEquals(1, modular.accomodationsNoRepeats(5, 0));
+		assertEquals(BigInteger.ONE, Combinatorics.accomodationsNoRepeats(5, 0));
+		int[][] invalid = { { 5, -1 }, { 3, 4 }, { -3, -3 }, { 1, -5 } };
+		for (int[] args : invalid) {
+			int n = args[0], k = args[1];
+			assertThrows(IllegalArgumentException.class, () -> Combinatorics.accomodationsNoRepeats(n, k));
+			assertThrows(IllegalArgumentException.class, () -> modular.accomodationsNoRepeats(n, k));
+			assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsNoRepeats(n, k));
+			assertThrows(IllegalArgumentException.class, () -> modular.combinationsNoRepeats(n, k));
+			assertThrows(IllegalArgumentException.class, () -> Combinatorics.combinationsWithRepeats(n, k));
+			assertThrows(IllegalArgumentException.class, () -> modular.combinationsWithRepeats(n, k));
+		}
+		assertThrows(IllegalArgumentException.class, () -> Combinatorics.accomodationsWithRepeats(3, -1));
+		assertThrows(IllegalArgumentException.class, () -> modular.accomodationsWithRepeats(3, -1));
+		assertThrows(IllegalArgumentException.class, () -> new ModularCombinatorics(8));
+	}
+
+	@Test
+	public void batch() {
+		ModularCombinatorics modular = new ModularCombinatorics(LARGE_PRIME);
+		int[] n = { 10, 20, 30, 40 };
+		int[] k = { 3, 4, 5, 6 };
+		long[] result = new long[4];
+		modular.combinationsNoRepeats(n, k, result, 1, 3);
+		assertEquals(0, result[0]);
+		for (int i = 1; i < 4; i++) {
+			assertEquals(Combinatorics.combinationsNoRepeatsExact(n[i], k[i]) % LARGE_PRIME, result[i]);
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> modular.combinationsNoRepeats(n, k, result, 2, 3));
+	}
+
+	private static long mod(BigInteger value, BigInteger p) {
+		return value.mod(p).longValueExact();
+	}
+
+}